@@ -0,0 +1,70 @@
+package ch.bfh.p2bbs.benchmark;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.signature.SignVerify;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+
+// Compares n calls of SignVerify.Verify with one SignVerify.batchVerify over the same valid signatures of one issuer.
+// Run with: java ch.bfh.p2bbs.benchmark.BatchVerifyBenchmark [n...]
+public class BatchVerifyBenchmark {
+
+    private static final int MESSAGES = 5;
+
+    public static void main(String[] args){
+        var sizes = args.length == 0 ? new int[]{1, 10, 100} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        var random = new Random(1);
+        var secretKey = Scalar.of(new BigInteger(255, random).mod(r));
+        var publicKey = KeyGen.SkToPk(secretKey);
+        var header = OctetString.valueOf("batch header", StandardCharsets.UTF_8);
+        System.out.printf("%6s %12s %12s %8s%n", "n", "verify ms", "batch ms", "speedup");
+        for (int n : sizes) {
+            var publicKeys = new Vector.Builder<OctetString>(n);
+            var signatures = new Vector.Builder<OctetString>(n);
+            var headers = new Vector.Builder<OctetString>(n);
+            var messageLists = new Vector.Builder<Vector<OctetString>>(n);
+            for (int i = 0; i < n; i++) {
+                var messages = new Vector.Builder<OctetString>(MESSAGES);
+                for (int j = 0; j < MESSAGES; j++) {
+                    messages.addValue(OctetString.valueOf("message " + i + "." + j, StandardCharsets.UTF_8));
+                }
+                var m = messages.build();
+                publicKeys.addValue(publicKey);
+                signatures.addValue(Sign.Sign(secretKey, publicKey, header, m));
+                headers.addValue(header);
+                messageLists.addValue(m);
+            }
+            var PK = publicKeys.build();
+            var S = signatures.build();
+            var H = headers.build();
+            var M = messageLists.build();
+            // warm up
+            SignVerify.Verify(PK.getValue(1), S.getValue(1), H.getValue(1), M.getValue(1));
+            SignVerify.batchVerify(PK, S, H, M);
+            var verify = time(() -> {
+                for (int i = 1; i <= n; i++) {
+                    SignVerify.Verify(PK.getValue(i), S.getValue(i), H.getValue(i), M.getValue(i));
+                }
+            });
+            var batch = time(() -> SignVerify.batchVerify(PK, S, H, M));
+            System.out.printf("%6d %12.2f %12.2f %8.2f%n", n, verify, batch, verify / batch);
+        }
+    }
+
+    private static double time(Runnable task){
+        var start = System.nanoTime();
+        task.run();
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
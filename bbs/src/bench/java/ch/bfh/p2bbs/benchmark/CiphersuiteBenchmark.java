@@ -0,0 +1,94 @@
+package ch.bfh.p2bbs.benchmark;
+
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.proof.ProofGen;
+import ch.bfh.p2bbs.proof.ProofVerify;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.signature.SignVerify;
+import ch.bfh.p2bbs.utils.GeneratorCache;
+import ch.bfh.p2bbs.utils.GeneratorTable;
+import ch.bfh.p2bbs.utils.MessagesToScalars;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static ch.bfh.p2bbs.utils.helper.hash_to_scalar;
+
+// Compares the SHA-256 and the SHAKE-256 ciphersuite on the hashing primitives and on Sign/Verify/ProofGen/ProofVerify.
+// Run with: java ch.bfh.p2bbs.benchmark.CiphersuiteBenchmark [messages] [iterations]
+public class CiphersuiteBenchmark {
+
+    public static void main(String[] args){
+        var L = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        var random = new Random(1);
+        var secretKey = Scalar.of(new BigInteger(255, random).mod(r));
+        var publicKey = KeyGen.SkToPk(secretKey);
+        var header = OctetString.valueOf("suite header", StandardCharsets.UTF_8);
+        var ph = OctetString.valueOf("suite presentation header", StandardCharsets.UTF_8);
+        var messages = new Vector.Builder<OctetString>(L);
+        var disclosed_indexes = new Vector.Builder<Integer>();
+        var disclosed_messages = new Vector.Builder<OctetString>();
+        for (int i = 1; i <= L; i++) {
+            var message = new byte[64];
+            random.nextBytes(message);
+            messages.addValue(new OctetString(message));
+            if(i % 2 == 1){
+                disclosed_indexes.addValue(i);
+                disclosed_messages.addValue(new OctetString(message));
+            }
+        }
+        var M = messages.build();
+        var I = disclosed_indexes.build();
+        var D = disclosed_messages.build();
+        var suites = Ciphersuite.values();
+        var results = new double[7][suites.length];
+        var signatures = new OctetString[suites.length];
+        var proofs = new OctetString[suites.length];
+        for (int s = 0; s < suites.length; s++) {
+            var suite = suites[s];
+            signatures[s] = Sign.Sign(suite, secretKey, publicKey, header, M);
+            proofs[s] = ProofGen.ProofGen(suite, publicKey, signatures[s], header, ph, M, I);
+            if(!SignVerify.Verify(suite, publicKey, signatures[s], header, M) || !ProofVerify.ProofVerify(suite, publicKey, proofs[s], header, ph, D, I)) throw new IllegalStateException(suite + " does not verify");
+        }
+        var msg = M.getValue(1);
+        // a warm-up round, then the average time per call, the suites alternate so that both run equally warm
+        for (int round = 0; round < 2; round++) {
+            for (int s = 0; s < suites.length; s++) {
+                var suite = suites[s];
+                var api_id = suite.getApiId();
+                var dst = api_id.concat("H2S_", StandardCharsets.US_ASCII);
+                var signature = signatures[s];
+                var proof = proofs[s];
+                results[0][s] = time(iterations * 100, () -> hash_to_scalar(msg, dst, suite));
+                results[1][s] = time(iterations, () -> MessagesToScalars.messagesToScalars(M, BbsContext.of(suite), null));
+                results[2][s] = time(iterations, () -> new GeneratorCache(L + 1, GeneratorTable.INVALID).getGenerators(L + 1, suite, api_id, null));
+                results[3][s] = time(iterations, () -> Sign.Sign(suite, secretKey, publicKey, header, M));
+                results[4][s] = time(iterations, () -> SignVerify.Verify(suite, publicKey, signature, header, M));
+                results[5][s] = time(iterations, () -> ProofGen.ProofGen(suite, publicKey, signature, header, ph, M, I));
+                results[6][s] = time(iterations, () -> ProofVerify.ProofVerify(suite, publicKey, proof, header, ph, D, I));
+            }
+        }
+        var operations = new String[]{"hash_to_scalar", "messages_to_scalars", "create_generators", "Sign", "Verify", "ProofGen", "ProofVerify"};
+        System.out.printf("L = %d messages of 64 bytes, ms per call%n", L);
+        System.out.printf("%-20s %12s %12s %8s%n", "operation", "SHA-256", "SHAKE-256", "ratio");
+        for (int i = 0; i < operations.length; i++) {
+            System.out.printf("%-20s %12.4f %12.4f %8.2f%n", operations[i], results[i][0], results[i][1], results[i][1] / results[i][0]);
+        }
+    }
+
+    private static double time(int iterations, Runnable task){
+        var start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / iterations;
+    }
+}
@@ -0,0 +1,52 @@
+package ch.bfh.p2bbs.benchmark;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.utils.MultiScalarMultiplication;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+
+// Compares the naive loop with G1Point.sumOfScalarMultiply, single-threaded and split over the common ForkJoinPool.
+// Run with: java ch.bfh.p2bbs.benchmark.MultiScalarMultiplicationBenchmark [L...]
+public class MultiScalarMultiplicationBenchmark {
+
+    public static void main(String[] args){
+        var sizes = args.length == 0 ? new int[]{1, 10, 100, 1000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        var random = new Random(1);
+        System.out.printf("%6s %12s %12s %8s %12s %8s%n", "L", "naive ms", "msm ms", "speedup", "parallel ms", "speedup");
+        for (int L : sizes) {
+            var points = new Vector.Builder<G1Point>(L);
+            var scalars = new Vector.Builder<Scalar>(L);
+            for (int i = 0; i < L; i++) {
+                points.addValue(G1Point.GENERATOR.times(Scalar.of(new BigInteger(64, random))));
+                scalars.addValue(Scalar.of(new BigInteger(255, random).mod(r)));
+            }
+            var P = points.build();
+            var k = scalars.build();
+            var rounds = Math.max(1, 100 / L);
+            // warm up
+            MultiScalarMultiplication.naive(P, k);
+            G1Point.sumOfScalarMultiply(P, k, null);
+            G1Point.sumOfScalarMultiply(P, k);
+            var naive = time(rounds, () -> MultiScalarMultiplication.naive(P, k));
+            var msm = time(rounds, () -> G1Point.sumOfScalarMultiply(P, k, null));
+            var parallel = time(rounds, () -> G1Point.sumOfScalarMultiply(P, k));
+            System.out.printf("%6d %12.2f %12.2f %8.2f %12.2f %8.2f%n", L, naive, msm, naive / msm, parallel, naive / parallel);
+        }
+    }
+
+    private static double time(int rounds, Runnable task){
+        var start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+}
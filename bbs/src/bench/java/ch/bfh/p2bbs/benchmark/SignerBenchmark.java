@@ -0,0 +1,57 @@
+package ch.bfh.p2bbs.benchmark;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.signature.Signer;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+
+// Compares Sign.Sign with a Signer of the same key, header and number of messages.
+// Run with: java ch.bfh.p2bbs.benchmark.SignerBenchmark [messages] [iterations]
+public class SignerBenchmark {
+
+    public static void main(String[] args){
+        var L = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        var random = new Random(4);
+        var secretKey = Scalar.of(new BigInteger(255, random).mod(r));
+        var publicKey = KeyGen.SkToPk(secretKey);
+        var header = OctetString.valueOf("signer header", StandardCharsets.UTF_8);
+        var signer = Signer.of(secretKey, publicKey, header, L);
+        double sign = 0, signed = 0;
+        // a warm-up round, then the average time per signature
+        for (int round = 0; round < 2; round++) {
+            var start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Sign.Sign(secretKey, publicKey, header, messages(random, L));
+            }
+            sign = (System.nanoTime() - start) / 1e6 / iterations;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                signer.sign(messages(random, L));
+            }
+            signed = (System.nanoTime() - start) / 1e6 / iterations;
+        }
+        System.out.printf("L = %d messages%n%-12s %10s%n", L, "operation", "ms");
+        System.out.printf("%-12s %10.4f%n", "Sign", sign);
+        System.out.printf("%-12s %10.4f%n", "Signer", signed);
+        System.out.printf("%-12s %10.2f%n", "speedup", sign / signed);
+    }
+
+    private static Vector<OctetString> messages(Random random, int L){
+        var messages = new Vector.Builder<OctetString>(L);
+        for (int i = 0; i < L; i++) {
+            var message = new byte[32];
+            random.nextBytes(message);
+            messages.addValue(new OctetString(message));
+        }
+        return messages.build();
+    }
+}
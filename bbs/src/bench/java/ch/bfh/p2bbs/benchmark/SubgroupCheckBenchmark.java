@@ -0,0 +1,86 @@
+package ch.bfh.p2bbs.benchmark;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.proof.ProofGen;
+import ch.bfh.p2bbs.proof.ProofVerify;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.signature.SignVerify;
+import ch.bfh.p2bbs.utils.GlvMultiplication;
+import ch.bfh.p2bbs.utils.SubgroupCheck;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.*;
+
+// Cost of the endomorphism based subgroup checks compared to r * P, and their share in Verify and ProofVerify.
+// Run with: java ch.bfh.p2bbs.benchmark.SubgroupCheckBenchmark [messages] [iterations]
+public class SubgroupCheckBenchmark {
+
+    public static void main(String[] args){
+        var L = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        var random = new Random(2);
+        var P = G1.times(G1.getGenerator(), new BigInteger(255, random));
+        var Q = G2.times(G2.getGenerator(), new BigInteger(255, random));
+        var k = new BigInteger(255, random).mod(r);
+        var secretKey = Scalar.of(new BigInteger(255, random).mod(r));
+        var publicKey = KeyGen.SkToPk(secretKey);
+        var header = OctetString.valueOf("subgroup header", StandardCharsets.UTF_8);
+        var ph = OctetString.valueOf("subgroup presentation header", StandardCharsets.UTF_8);
+        var messages = new Vector.Builder<OctetString>(L);
+        var disclosed_indexes = new Vector.Builder<Integer>();
+        var disclosed_messages = new Vector.Builder<OctetString>();
+        for (int i = 1; i <= L; i++) {
+            var message = new byte[32];
+            random.nextBytes(message);
+            messages.addValue(new OctetString(message));
+            if(i % 2 == 1){
+                disclosed_indexes.addValue(i);
+                disclosed_messages.addValue(new OctetString(message));
+            }
+        }
+        var M = messages.build();
+        var I = disclosed_indexes.build();
+        var D = disclosed_messages.build();
+        var signature = Sign.Sign(secretKey, publicKey, header, M);
+        var proof = ProofGen.ProofGen(publicKey, signature, header, ph, M, I);
+        double[] primitives = new double[5];
+        double[] verification = new double[2];
+        // a warm-up round, then the average time per call
+        for (int round = 0; round < 2; round++) {
+            primitives[0] = time(iterations, () -> SubgroupCheck.isInG1(P));
+            primitives[1] = time(iterations, () -> G1.isZero(G1.times(P, r)));
+            primitives[2] = time(iterations, () -> GlvMultiplication.multiply(P, k));
+            primitives[3] = time(iterations, () -> SubgroupCheck.isInG2(Q));
+            primitives[4] = time(iterations, () -> G2.isZero(G2.times(Q, r)));
+            verification[0] = time(iterations, () -> SignVerify.Verify(publicKey, signature, header, M));
+            verification[1] = time(iterations, () -> ProofVerify.ProofVerify(publicKey, proof, header, ph, D, I));
+        }
+        System.out.println("ms per call");
+        System.out.printf("%-28s %10.4f%n", "G1 endomorphism check", primitives[0]);
+        System.out.printf("%-28s %10.4f%n", "G1 r * P == 0", primitives[1]);
+        System.out.printf("%-28s %10.4f%n", "G1 GLV k * P", primitives[2]);
+        System.out.printf("%-28s %10.4f%n", "G2 endomorphism check", primitives[3]);
+        System.out.printf("%-28s %10.4f%n", "G2 r * Q == 0", primitives[4]);
+        System.out.printf("L = %d messages%n%-28s %10s %10s %8s%n", L, "operation", "total", "checks", "share");
+        var operations = new String[]{"Verify", "ProofVerify"};
+        var checkedPoints = new int[]{1, 3};
+        for (int i = 0; i < operations.length; i++) {
+            var checks = checkedPoints[i] * primitives[0];
+            System.out.printf("%-28s %10.4f %10.4f %7.1f%%%n", operations[i], verification[i], checks, 100 * checks / verification[i]);
+        }
+    }
+
+    private static double time(int iterations, Runnable task){
+        var start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / iterations;
+    }
+}
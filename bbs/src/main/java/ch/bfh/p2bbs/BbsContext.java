@@ -0,0 +1,186 @@
+package ch.bfh.p2bbs;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.proof.ProofGen;
+import ch.bfh.p2bbs.proof.ProofVerify;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.signature.SignVerify;
+import ch.bfh.p2bbs.signature.Signer;
+import ch.bfh.p2bbs.excptions.Abort;
+import ch.bfh.p2bbs.utils.ExpandMessage;
+import ch.bfh.p2bbs.utils.GeneratorCache;
+import ch.bfh.p2bbs.utils.MessagesToScalars;
+import ch.openchvote.util.sequence.Vector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+
+import static ch.bfh.p2bbs.utils.Definitions.Expand_Len;
+
+// see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-ciphersuite-format
+// The api_id, DSTs, P1 and generators shared by the operations of one ciphersuite, passed on to the core operations.
+public final class BbsContext {
+
+    private static final BbsContext[] CONTEXTS = new BbsContext[Ciphersuite.values().length];
+
+    static {
+        for (var ciphersuite: Ciphersuite.values()) {
+            CONTEXTS[ciphersuite.ordinal()] = new BbsContext(ciphersuite, ciphersuite.getApiId());
+        }
+    }
+
+    private final Ciphersuite ciphersuite;
+    private final OctetString api_id;
+    // the DST of hash_to_scalar in Sign, the domain and the challenge calculation
+    private final OctetString hash_to_scalar_dst;
+    private final OctetString map_dst;
+    private final OctetString keygen_dst;
+    private final ExpandMessage hash_to_scalar_expander;
+    private final ExpandMessage map_expander;
+    // the generators this context has used so far, kept when the GeneratorCache evicts its api_id
+    private volatile G1Point[] generators = new G1Point[0];
+
+    private BbsContext(Ciphersuite ciphersuite, OctetString api_id){
+        this.ciphersuite = ciphersuite;
+        this.api_id = api_id;
+        this.hash_to_scalar_dst = api_id.concat("H2S_", StandardCharsets.US_ASCII);
+        this.map_dst = api_id.concat("MAP_MSG_TO_SCALAR_AS_HASH_", StandardCharsets.US_ASCII);
+        this.keygen_dst = api_id.concat("KEYGEN_DST_", StandardCharsets.US_ASCII);
+        if(map_dst.length > 255) throw new Abort("Dst is to long");
+        this.hash_to_scalar_expander = ciphersuite.expander(hash_to_scalar_dst.toBytes(), Expand_Len);
+        this.map_expander = ciphersuite.expander(map_dst.toBytes(), Expand_Len);
+    }
+
+    public static BbsContext of(Ciphersuite ciphersuite){
+        return CONTEXTS[ciphersuite.ordinal()];
+    }
+
+    // the context of the SHA-256 suite
+    public static BbsContext getDefault(){
+        return of(Ciphersuite.BLS12_381_SHA_256);
+    }
+
+    // The context of the SHA-256 suite with the given api_id, for other suites see of(ciphersuite, api_id)
+    public static BbsContext of(OctetString api_id){
+        return of(Ciphersuite.BLS12_381_SHA_256, api_id);
+    }
+
+    // The context of the suite, a new one for api_ids other than the one of the suite
+    public static BbsContext of(Ciphersuite ciphersuite, OctetString api_id){
+        var context = of(ciphersuite);
+        if(context.api_id.equals(api_id)) return context;
+        return new BbsContext(ciphersuite, api_id);
+    }
+
+    public Ciphersuite getCiphersuite(){
+        return ciphersuite;
+    }
+
+    public OctetString getApiId(){
+        return api_id;
+    }
+
+    // api_id || "H2S_"
+    public OctetString getHashToScalarDst(){
+        return hash_to_scalar_dst;
+    }
+
+    // api_id || "MAP_MSG_TO_SCALAR_AS_HASH_"
+    public OctetString getMapDst(){
+        return map_dst;
+    }
+
+    // the expand_message of hash_to_scalar with getHashToScalarDst()
+    public ExpandMessage getHashToScalarExpander(){
+        return hash_to_scalar_expander;
+    }
+
+    // the expand_message of hash_to_scalar with getMapDst()
+    public ExpandMessage getMapExpander(){
+        return map_expander;
+    }
+
+    // api_id || "KEYGEN_DST_"
+    public OctetString getKeyGenDst(){
+        return keygen_dst;
+    }
+
+    public G1Point getP1(){
+        return ciphersuite.getP1();
+    }
+
+    // Q_1, H_1, ..., H_(count-1) of the api_id. Missing generators are taken from the GeneratorCache, up to its bound
+    // they are then kept by the context
+    public Vector<G1Point> getGenerators(int count){
+        var known = generators;
+        if(known.length < count){
+            var cache = GeneratorCache.getInstance();
+            var fetched = cache.getGenerators(count, ciphersuite, api_id);
+            if(count > cache.getMaxGenerators()) return fetched;
+            synchronized (this){
+                if(generators.length < count){
+                    var extended = new G1Point[count];
+                    for (int i = 0; i < count; i++) {
+                        extended[i] = fetched.getValue(i+1);
+                    }
+                    generators = extended;
+                }
+                known = generators;
+            }
+        }
+        var builder = new Vector.Builder<G1Point>(count);
+        for (int i = 0; i < count; i++) {
+            builder.addValue(known[i]);
+        }
+        return builder.build();
+    }
+
+    public Vector<Scalar> messagesToScalars(Vector<OctetString> messages){
+        return MessagesToScalars.messagesToScalars(messages, this);
+    }
+
+    public Scalar keyGen(OctetString key_material, OctetString key_info, OctetString key_dst){
+        return KeyGen.KeyGen(this, key_material, key_info, key_dst);
+    }
+
+    public OctetString skToPk(Scalar secretKey){
+        return KeyGen.SkToPk(secretKey);
+    }
+
+    public OctetString sign(Scalar secretKey, OctetString publicKey, OctetString header, Vector<OctetString> messages){
+        return Sign.Sign(this, secretKey, publicKey, header, messages);
+    }
+
+    // a signer of messages of L messages with this key and header, see Signer
+    public Signer signer(Scalar secretKey, OctetString publicKey, OctetString header, int L){
+        return Signer.of(this, secretKey, publicKey, header, L);
+    }
+
+    // executor == null signs all messages on the calling thread
+    public Vector<OctetString> signBatch(Scalar secretKey, OctetString publicKey, OctetString header, Vector<Vector<OctetString>> messages, Executor executor){
+        return Sign.signBatch(this, secretKey, publicKey, header, messages, executor);
+    }
+
+    public boolean verify(OctetString publicKey, OctetString signature, OctetString header, Vector<OctetString> messages){
+        return SignVerify.Verify(this, publicKey, signature, header, messages);
+    }
+
+    public Vector<Boolean> batchVerify(Vector<OctetString> publicKeys, Vector<OctetString> signatures, Vector<OctetString> headers, Vector<Vector<OctetString>> messages){
+        return SignVerify.batchVerify(this, publicKeys, signatures, headers, messages);
+    }
+
+    public OctetString proofGen(OctetString publicKey, OctetString signature, OctetString header, OctetString ph, Vector<OctetString> messages, Vector<Integer> disclosed_indexes){
+        return ProofGen.ProofGen(this, publicKey, signature, header, ph, messages, disclosed_indexes);
+    }
+
+    public boolean proofVerify(OctetString publicKey, OctetString proof, OctetString header, OctetString ph, Vector<OctetString> disclosed_messages, Vector<Integer> disclosed_indexes){
+        return ProofVerify.ProofVerify(this, publicKey, proof, header, ph, disclosed_messages, disclosed_indexes);
+    }
+
+    public Vector<Boolean> batchProofVerify(Vector<OctetString> publicKeys, Vector<OctetString> proofs, Vector<OctetString> headers, Vector<OctetString> phs, Vector<Vector<OctetString>> disclosed_messages, Vector<Vector<Integer>> disclosed_indexes){
+        return ProofVerify.batchVerify(this, publicKeys, proofs, headers, phs, disclosed_messages, disclosed_indexes);
+    }
+}
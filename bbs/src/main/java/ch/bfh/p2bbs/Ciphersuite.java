@@ -0,0 +1,73 @@
+package ch.bfh.p2bbs;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.utils.ExpandMessage;
+import ch.bfh.p2bbs.utils.ExpandMessageXmd;
+import ch.bfh.p2bbs.utils.ExpandMessageXof;
+import ch.bfh.p2bbs.utils.HashToCurveG1;
+
+import java.nio.charset.StandardCharsets;
+
+// see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-ciphersuites
+// The two BLS12-381 ciphersuites, they differ in the ciphersuite_id, P1 and expand_message.
+public enum Ciphersuite {
+
+    BLS12_381_SHA_256("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_", "a8ce256102840821a3e94ea9025e4662b205762f9776b3a766c872b948f1fd225e7c59698588e70d11406d161b4e28c9") {
+        @Override
+        public ExpandMessage expander(byte[] dst, int len_in_bytes){
+            return new ExpandMessageXmd(dst, len_in_bytes);
+        }
+    },
+
+    BLS12_381_SHAKE_256("BBS_BLS12381G1_XOF:SHAKE-256_SSWU_RO_", "8929dfbc7e6642c4ed9cba0856e493f8b9d7d5fcb0c31ef8fdcd34d50648a56c795e106e9eada6e0bda386b414150755") {
+        @Override
+        public ExpandMessage expander(byte[] dst, int len_in_bytes){
+            return new ExpandMessageXof(dst, len_in_bytes);
+        }
+    };
+
+    private final OctetString ciphersuite_id;
+    private final OctetString api_id;
+    private final String P1_hex;
+    // deserialized on first use, the SHA-256 P1 is also Definitions.P1
+    private volatile G1Point P1;
+
+    Ciphersuite(String ciphersuite_id, String P1_hex){
+        this.ciphersuite_id = OctetString.valueOf(ciphersuite_id, StandardCharsets.US_ASCII);
+        this.api_id = this.ciphersuite_id.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
+        this.P1_hex = P1_hex;
+    }
+
+    // expand_message of the suite for a DST and an output length
+    public abstract ExpandMessage expander(byte[] dst, int len_in_bytes);
+
+    // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-hash-to-curve
+    // both suites use the same simplified SWU map, they only differ in expand_message
+    public G1Point hash_to_curve_g1(byte[] msg, OctetString dst){
+        return HashToCurveG1.hash_to_curve(expander(dst.toBytes(), HashToCurveG1.LENGTH).start().update(msg));
+    }
+
+    public OctetString getCiphersuiteId(){
+        return ciphersuite_id;
+    }
+
+    // api_id = ciphersuite_id || "H2G_HM2S_"
+    public OctetString getApiId(){
+        return api_id;
+    }
+
+    public G1Point getP1(){
+        var P1 = this.P1;
+        if(P1 == null){
+            synchronized (this){
+                P1 = this.P1;
+                if(P1 == null){
+                    P1 = G1Point.deserialize(OctetString.valueOfHexString(P1_hex).toBytes()).asFixedBase();
+                    this.P1 = P1;
+                }
+            }
+        }
+        return P1;
+    }
+}
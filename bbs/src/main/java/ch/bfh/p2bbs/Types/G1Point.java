@@ -3,35 +3,123 @@ package ch.bfh.p2bbs.Types;
 import ch.bfh.evg.element.ECPoint;
 import ch.bfh.evg.element.FpElement;
 import ch.bfh.evg.field.Fp;
+import ch.bfh.p2bbs.utils.FixedBaseTable;
+import ch.bfh.p2bbs.utils.GlvMultiplication;
+import ch.bfh.p2bbs.utils.MultiPairingBLS12;
+import ch.bfh.p2bbs.utils.MultiScalarMultiplication;
+import ch.bfh.p2bbs.utils.SubgroupCheck;
 import ch.openchvote.util.sequence.Vector;
 
+import java.math.BigInteger;
+import java.util.concurrent.Executor;
+
 import static ch.bfh.p2bbs.utils.Definitions.*;
 
 public class G1Point extends ECPoint<FpElement, Fp> {
     private final ch.bfh.evg.element.G1Point point;
+    // comb table of points used as fixed base (P1, Q1, H_i) with fixedBaseTeeth teeth, built on the first multiplication
+    private final int fixedBaseTeeth;
+    private volatile FixedBaseTable<ch.bfh.evg.element.G1Point> fixedBaseTable;
     public static final G1Point GENERATOR = new G1Point((ECPoint<FpElement, Fp>) G1.getGenerator(), (Fp) G1.getField());
     public static final G1Point ZERO = GENERATOR.subtract(GENERATOR);
+    private static final int COMPRESSED_LENGTH = 48;
+    private static final int COMPRESSION_FLAG = 0x80, INFINITY_FLAG = 0x40, SIGN_FLAG = 0x20;
+    private static final Fp FIELD = (Fp) G1.getField();
+    private static final BigInteger p = FIELD.getCharacteristic();
+    private static final BigInteger HALF_P = p.subtract(BigInteger.ONE).shiftRight(1);
+    private static final BigInteger B = BigInteger.valueOf(4);
+    // p = 3 mod 4, so the square root of a square x is x^((p+1)/4)
+    private static final BigInteger SQRT_EXPONENT = p.add(BigInteger.ONE).shiftRight(2);
     public G1Point(ECPoint<FpElement, Fp> point, Fp field){
         super(field, point.get_X(), point.get_Y(), point.get_Z());
         this.point = (ch.bfh.evg.element.G1Point) point;
+        this.fixedBaseTeeth = 0;
     }
 
     public G1Point(ECPoint<FpElement, Fp> point){
-        super((Fp) G1.getField(), point.get_X(), point.get_Y(), point.get_Z());
-        this.point = (ch.bfh.evg.element.G1Point) point;
+        this(point, 0);
     }
 
     public G1Point(){
         super(null, null, null, null);
         this.point = null;
+        this.fixedBaseTeeth = 0;
+    }
+
+    private G1Point(ECPoint<FpElement, Fp> point, int fixedBaseTeeth){
+        super((Fp) G1.getField(), point.get_X(), point.get_Y(), point.get_Z());
+        this.point = (ch.bfh.evg.element.G1Point) point;
+        this.fixedBaseTeeth = fixedBaseTeeth;
+    }
+
+    public ch.bfh.evg.element.G1Point getPoint(){
+        return point;
+    }
+
+    // The same point as fixed base with a FixedBaseTable of FixedBaseTable.DEFAULT_TEETH teeth
+    public G1Point asFixedBase(){
+        return asFixedBase(FixedBaseTable.DEFAULT_TEETH);
+    }
+
+    // The same point as fixed base, its multiplications then use a FixedBaseTable of the given teeth. This point is not changed
+    public G1Point asFixedBase(int teeth){
+        if(teeth < 1 || teeth > FixedBaseTable.MAX_TEETH) throw new IllegalArgumentException("The number of teeth must be between 1 and " + FixedBaseTable.MAX_TEETH);
+        return new G1Point(point, teeth);
+    }
+
+    public boolean isFixedBase(){
+        return fixedBaseTeeth > 0;
+    }
+
+    // The comb table of a fixed base point, null for other points
+    public FixedBaseTable<ch.bfh.evg.element.G1Point> getFixedBaseTable(){
+        if(!isFixedBase()) return null;
+        var table = fixedBaseTable;
+        if(table == null){
+            synchronized (this){
+                table = fixedBaseTable;
+                if(table == null){
+                    table = new FixedBaseTable<>(G1, point, fixedBaseTeeth);
+                    fixedBaseTable = table;
+                }
+            }
+        }
+        return table;
     }
 
     public byte[] serialize(){
         return G1.serialize(point);
     }
 
+    // G1.deserialize only checks that the point is on the curve, points outside of G1 are rejected here
     public static G1Point deserialize(byte[] serializedPoint){
-        return new G1Point(G1.deserialize(serializedPoint));
+        var point = G1.deserialize(serializedPoint);
+        if(!SubgroupCheck.isInG1(point)) throw new IllegalArgumentException("The point is not in G1");
+        return new G1Point(point);
+    }
+
+    // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-pairing-friendly-curves-11#appendix-C.2
+    // Decompresses a 48 octets point from the octet string without copying it, other lengths are deserialized by the library.
+    // Malformed octets (flags, x >= p, x^3 + 4 not a square) and points outside of G1 give an invalid point instead of an exception.
+    public static G1Point deserialize(OctetString serializedPoint){
+        if(serializedPoint.length != COMPRESSED_LENGTH) return deserialize(serializedPoint.toBytes());
+        var flags = serializedPoint.byteAt(0);
+        if((flags & COMPRESSION_FLAG) == 0) return new G1Point();
+        var x = serializedPoint.toBigInteger().clearBit(383).clearBit(382).clearBit(381);
+        var sign = (flags & SIGN_FLAG) != 0;
+        if((flags & INFINITY_FLAG) != 0) return !sign && x.signum() == 0 ? new G1Point(G1.getZero()) : new G1Point();
+        if(x.compareTo(p) >= 0) return new G1Point();
+        // y^2 = x^3 + 4
+        var y2 = x.multiply(x).multiply(x).add(B).mod(p);
+        var y = y2.modPow(SQRT_EXPONENT, p);
+        if(!y.multiply(y).mod(p).equals(y2)) return new G1Point();
+        // the sign flag is set for the lexicographically larger of y and p - y
+        if(sign != y.compareTo(HALF_P) > 0){
+            if(y.signum() == 0) return new G1Point();
+            y = p.subtract(y);
+        }
+        var point = G1.getPoint(FIELD.getElement(x), FIELD.getElement(y));
+        return SubgroupCheck.isInG1(point) ? new G1Point(point) : new G1Point();
     }
 
     public static G1Point hash_to_curve_g1(byte[] msg, OctetString dst){
@@ -47,22 +135,52 @@ public class G1Point extends ECPoint<FpElement, Fp> {
     }
 
     public G1Point times(Scalar scalar){
-        return new G1Point((ECPoint<FpElement, Fp>) G1.times(point, scalar.value));
+        if(isFixedBase()) return new G1Point((ECPoint<FpElement, Fp>) getFixedBaseTable().multiply(scalar.toBigInteger()));
+        return new G1Point((ECPoint<FpElement, Fp>) GlvMultiplication.multiply(point, scalar.toBigInteger()));
     }
 
     public static G1Point sumOfScalarMultiply(Vector<G1Point> points, Vector<Scalar> scalars){
-        G1Point res = ZERO;
-        for (int i = 1; i <= scalars.getLength(); i++) {
-            G1Point scalarMultiplyRes = points.getValue(i).times(scalars.getValue(i));
-            res = res.add(scalarMultiplyRes);
-        }
-        return res;
+        return MultiScalarMultiplication.sumOfScalarMultiply(points, scalars);
+    }
+
+    public static G1Point sumOfScalarMultiply(Vector<G1Point> points, Vector<Scalar> scalars, Executor executor){
+        return MultiScalarMultiplication.sumOfScalarMultiply(points, scalars, executor);
+    }
+
+    public static G1Point sumOfScalarMultiply(G1Point[] points, Scalar[] scalars){
+        return MultiScalarMultiplication.sumOfScalarMultiply(points, scalars);
     }
 
     public GTElement pair(G2Point other){
         return new GTElement(BLS12381.pair(this.point, other.getPoint()));
     }
 
+    // e(P_1, Q_1) * ... * e(P_n, Q_n) == 1 with a single final exponentiation
+    public static boolean pairingProductIsOne(G1Point[] Ps, G2Point[] Qs){
+        var points1 = new ch.bfh.evg.element.G1Point[Ps.length];
+        var points2 = new ch.bfh.evg.element.G2Point[Qs.length];
+        for (int i = 0; i < Ps.length; i++) {
+            points1[i] = Ps[i].point;
+        }
+        for (int i = 0; i < Qs.length; i++) {
+            points2[i] = Qs[i].getPoint();
+        }
+        return BLS12381.pairingProductIsOne(points1, points2);
+    }
+
+    // as pairingProductIsOne, with the G2 side of the pairings precomputed
+    public static boolean pairingProductIsOne(G1Point[] Ps, PreparedG2Point[] Qs){
+        var points1 = new ch.bfh.evg.element.G1Point[Ps.length];
+        var lines = new MultiPairingBLS12.PreparedLines[Qs.length];
+        for (int i = 0; i < Ps.length; i++) {
+            points1[i] = Ps[i].point;
+        }
+        for (int i = 0; i < Qs.length; i++) {
+            lines[i] = Qs[i].getLines();
+        }
+        return BLS12381.pairingProductIsOne(points1, lines);
+    }
+
     public boolean isZero(){
         return G1.isZero(point);
     }
@@ -72,6 +190,6 @@ public class G1Point extends ECPoint<FpElement, Fp> {
     }
 
     public boolean isInvalid() {
-        return this.point.getFirst() == null || this.point.getSecond() == null || this.point.getThird() == null;
+        return this.point == null || this.point.getFirst() == null || this.point.getSecond() == null || this.point.getThird() == null;
     }
 }
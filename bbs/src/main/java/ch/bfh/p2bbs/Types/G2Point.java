@@ -3,6 +3,7 @@ package ch.bfh.p2bbs.Types;
 import ch.bfh.evg.element.ECPoint;
 import ch.bfh.evg.element.Fp2Element;
 import ch.bfh.evg.field.Fp2;
+import ch.bfh.p2bbs.utils.FixedBaseTable;
 
 import static ch.bfh.p2bbs.utils.Definitions.G2;
 
@@ -10,12 +11,19 @@ public class G2Point extends ECPoint<Fp2Element, Fp2> {
 
     private final ch.bfh.evg.element.G2Point point;
     public static final G2Point GENERATOR = new G2Point((ECPoint<Fp2Element, Fp2>) G2.getGenerator(), (Fp2) G2.getField());
+    // 2^4 - 1 points, 64 doublings per multiplication. More teeth save little per multiplication but make the first one slower
+    public static final int GENERATOR_TABLE_TEETH = 4;
 
     public G2Point(ECPoint<Fp2Element, Fp2> point, Fp2 field){
         super(field, point.get_X(), point.get_Y(), point.get_Z());
         this.point = (ch.bfh.evg.element.G2Point) point;
     }
 
+    public G2Point(){
+        super(null, null, null, null);
+        this.point = null;
+    }
+
     private G2Point(ECPoint<Fp2Element, Fp2> point){
         super((Fp2) G2.getField(), point.get_X(), point.get_Y(), point.get_Z());
         this.point = (ch.bfh.evg.element.G2Point) point;
@@ -39,7 +47,14 @@ public class G2Point extends ECPoint<Fp2Element, Fp2> {
     }
 
     public G2Point times(Scalar scalar){
-        return new G2Point((ECPoint<Fp2Element, Fp2>) G2.times(point, scalar.value));
+        return new G2Point((ECPoint<Fp2Element, Fp2>) G2.times(point, scalar.toBigInteger()));
+    }
+
+    // scalar * GENERATOR with the comb table of the generator, only GENERATOR has one: other points, also other
+    // instances of the generator (e.g. deserialized ones), are rejected instead of silently taking the slow path
+    public G2Point timesFixedBase(Scalar scalar){
+        if(this != GENERATOR) throw new IllegalArgumentException("Only G2Point.GENERATOR has a fixed base table");
+        return new G2Point((ECPoint<Fp2Element, Fp2>) GeneratorTableHolder.TABLE.multiply(scalar.toBigInteger()));
     }
 
     public G2Point add(G2Point other){
@@ -55,7 +70,16 @@ public class G2Point extends ECPoint<Fp2Element, Fp2> {
         return this.point.toString();
     }
 
+    public boolean isZero(){
+        return G2.isZero(point);
+    }
+
     public boolean isInvalid(){
         return this.point == null;
     }
+
+    // built on the first multiplication of the generator
+    private static class GeneratorTableHolder {
+        private static final FixedBaseTable<ch.bfh.evg.element.G2Point> TABLE = new FixedBaseTable<>(G2, GENERATOR.point, GENERATOR_TABLE_TEETH);
+    }
 }
@@ -1,34 +1,92 @@
 package ch.bfh.p2bbs.Types;
 
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HexFormat;
+import java.util.Objects;
 
+// A sequence of octets, stored as a view of a backing array or ByteBuffer that is shared but never modified.
 public class OctetString {
 
     public static OctetString INVALID = new OctetString(-1);
+    // backing array, null for views of a buffer
     private final byte[] octetString;
+    private final int offset;
+    // view of a buffer without accessible array, the octets are at the indexes 0 to length - 1
+    private final ByteBuffer buffer;
     public final int length;
 
     public OctetString(){
-        this.octetString = new byte[0];
-        length = 0;
+        this(new byte[0]);
     }
 
     public OctetString(byte[] octetString){
-        this.octetString = octetString;
-        length = octetString.length;
+        this(octetString, 0, octetString.length, null);
     }
 
     private OctetString(int length){
-        this.octetString = null;
+        this(null, 0, length, null);
+    }
+
+    private OctetString(byte[] octetString, int offset, int length, ByteBuffer buffer){
+        this.octetString = octetString;
+        this.offset = offset;
         this.length = length;
+        this.buffer = buffer;
+    }
+
+    // The bytes offset to offset + length - 1 of the array, without copying them
+    public static OctetString wrap(byte[] array, int offset, int length){
+        Objects.checkFromIndexSize(offset, length, array.length);
+        return new OctetString(array, offset, length, null);
+    }
+
+    // The remaining bytes of the buffer, without copying them. The position of the buffer is not changed
+    public static OctetString wrap(ByteBuffer buffer){
+        if(buffer.hasArray()) return new OctetString(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), null);
+        return new OctetString(null, 0, buffer.remaining(), buffer.slice());
     }
 
+    // The octets as array, which is the backing array if the view covers it completely
     public byte[] toBytes(){
-        return octetString;
+        if(isInvalid()) return null;
+        if(buffer == null && offset == 0 && length == octetString.length) return octetString;
+        var bytes = new byte[length];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+
+    public void copyTo(byte[] destination, int destinationOffset){
+        if(buffer == null) System.arraycopy(octetString, offset, destination, destinationOffset, length);
+        else buffer.get(0, destination, destinationOffset, length);
+    }
+
+    // A buffer over the octets from its position to its limit, sharing them with this octet string
+    public ByteBuffer asByteBuffer(){
+        if(buffer == null) return ByteBuffer.wrap(octetString, offset, length);
+        return buffer.duplicate();
+    }
+
+    public byte byteAt(int index){
+        Objects.checkIndex(index, length);
+        return buffer == null ? octetString[offset + index] : buffer.get(index);
+    }
+
+    // OS2IP of the octets, computed without copying them
+    public BigInteger toBigInteger(){
+        if(buffer == null) return new BigInteger(1, octetString, offset, length);
+        var value = BigInteger.ZERO;
+        var i = 0;
+        for (; i + Integer.BYTES <= length; i += Integer.BYTES) {
+            value = value.shiftLeft(Integer.SIZE).or(BigInteger.valueOf(Integer.toUnsignedLong(buffer.getInt(i))));
+        }
+        for (; i < length; i++) {
+            value = value.shiftLeft(Byte.SIZE).or(BigInteger.valueOf(buffer.get(i) & 0xff));
+        }
+        return value;
     }
 
     public OctetString concat(String str, Charset charset){
@@ -40,10 +98,9 @@ public class OctetString {
     }
 
     public OctetString concat(OctetString str){
-        byte[] otherBytes = str.toBytes();
-        byte[] temp = new byte[otherBytes.length + this.octetString.length];
-        System.arraycopy(this.octetString, 0, temp, 0, this.octetString.length);
-        System.arraycopy(otherBytes, 0, temp, this.octetString.length, otherBytes.length);
+        byte[] temp = new byte[this.length + str.length];
+        this.copyTo(temp, 0);
+        str.copyTo(temp, this.length);
         return new OctetString(temp);
     }
 
@@ -61,10 +118,8 @@ public class OctetString {
 
     public OctetString reverse(){
         byte[] b = new byte[length];
-        int j = length;
         for (int i = 0; i < length; i++) {
-            b[j - 1] = octetString[i];
-            j = j - 1;
+            b[length - 1 - i] = byteAt(i);
         }
         return new OctetString(b);
     }
@@ -78,21 +133,26 @@ public class OctetString {
         return new OctetString(temp);
     }
 
+    // The octets start to end (inclusive) as a view of the same backing storage
     public OctetString split(int start, int end){
-        int delta = end-start+1;
-        byte[] temp = new byte[delta];
-        System.arraycopy(octetString, start, temp, 0, delta);
-        return new OctetString(temp);
+        return slice(start, end-start+1);
+    }
+
+    // length octets from start on as a view of the same backing storage
+    public OctetString slice(int start, int length){
+        Objects.checkFromIndexSize(start, length, this.length);
+        if(buffer == null) return new OctetString(octetString, offset + start, length, null);
+        return new OctetString(null, 0, length, buffer.slice(start, length));
     }
 
     public int toInt(){
-        return ByteBuffer.wrap(octetString).getInt();
+        return asByteBuffer().getInt();
     }
 
     @Override
     public String toString() {
         if(isInvalid()) return "Invalid";
-        return bytesToHex(octetString);
+        return bytesToHex(toBytes());
     }
 
     private static final byte[] HEX_ARRAY = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
@@ -111,6 +171,19 @@ public class OctetString {
     }
 
     public boolean equals(OctetString other){
-        return this.octetString.length == other.length && Arrays.equals(this.octetString, other.octetString);
+        if(this.length != other.length) return false;
+        if(this.isInvalid()) return true;
+        if(this.buffer == null && other.buffer == null) return Arrays.equals(this.octetString, this.offset, this.offset + this.length, other.octetString, other.offset, other.offset + other.length);
+        return this.asByteBuffer().equals(other.asByteBuffer());
+    }
+
+    @Override
+    public boolean equals(Object object){
+        return object instanceof OctetString other && equals(other);
+    }
+
+    @Override
+    public int hashCode(){
+        return isInvalid() ? -1 : asByteBuffer().hashCode();
     }
 }
@@ -0,0 +1,94 @@
+package ch.bfh.p2bbs.Types;
+
+import ch.bfh.p2bbs.utils.MultiPairingBLS12;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static ch.bfh.p2bbs.utils.Definitions.BLS12381;
+import static ch.bfh.p2bbs.utils.helper.octets_to_pubkey;
+
+// G2 point with the precomputed Miller loop lines of its pairings (see MultiPairingBLS12.prepare), kept per public key.
+public class PreparedG2Point {
+    public static final PreparedG2Point INVALID = new PreparedG2Point();
+    public static final int DEFAULT_MAX_PUBLIC_KEYS = 64;
+
+    private static final ConcurrentHashMap<OctetString, PreparedG2Point> publicKeys = new ConcurrentHashMap<>();
+    // the cached public keys in the order they were added, the oldest is evicted first
+    private static final ConcurrentLinkedQueue<OctetString> insertionOrder = new ConcurrentLinkedQueue<>();
+    private static volatile int maxPublicKeys = DEFAULT_MAX_PUBLIC_KEYS;
+
+    private final G2Point point;
+    private final MultiPairingBLS12.PreparedLines lines;
+
+    public PreparedG2Point(G2Point point){
+        this.point = point;
+        this.lines = BLS12381.prepare(point.getPoint());
+    }
+
+    private PreparedG2Point(){
+        this.point = null;
+        this.lines = null;
+    }
+
+    public static PreparedG2Point negatedGenerator(){
+        return NegatedGeneratorHolder.NEGATED_GENERATOR;
+    }
+
+    // The prepared point W of a public key, INVALID if the octets are no valid public key (see octets_to_pubkey)
+    public static PreparedG2Point ofPublicKey(OctetString publicKey){
+        if(publicKey.isInvalid()) return INVALID;
+        var prepared = publicKeys.get(publicKey);
+        if(prepared != null) return prepared;
+        var W = octets_to_pubkey(publicKey);
+        if(W.isInvalid()) return INVALID;
+        prepared = new PreparedG2Point(W);
+        if(maxPublicKeys == 0) return prepared;
+        // a copy of the octets, a view must not keep the buffer of the caller alive
+        var key = new OctetString(publicKey.toBytes().clone());
+        if(publicKeys.putIfAbsent(key, prepared) == null){
+            insertionOrder.add(key);
+            evict();
+        }
+        return prepared;
+    }
+
+    // Number of public keys whose prepared points are kept, 0 disables the cache
+    public static void setMaxPublicKeys(int max){
+        if(max < 0) throw new IllegalArgumentException("The maximal number of cached public keys must not be negative");
+        maxPublicKeys = max;
+        evict();
+    }
+
+    public static int getMaxPublicKeys(){
+        return maxPublicKeys;
+    }
+
+    public static int getCachedPublicKeys(){
+        return publicKeys.size();
+    }
+
+    private static void evict(){
+        while (publicKeys.size() > maxPublicKeys){
+            var eldest = insertionOrder.poll();
+            if(eldest == null) return;
+            publicKeys.remove(eldest);
+        }
+    }
+
+    public G2Point getPoint(){
+        return point;
+    }
+
+    public MultiPairingBLS12.PreparedLines getLines(){
+        return lines;
+    }
+
+    public boolean isInvalid(){
+        return this.point == null;
+    }
+
+    private static class NegatedGeneratorHolder {
+        private static final PreparedG2Point NEGATED_GENERATOR = new PreparedG2Point(G2Point.GENERATOR.negate());
+    }
+}
@@ -1,70 +1,159 @@
 package ch.bfh.p2bbs.Types;
 
 import ch.openchvote.util.sequence.Vector;
-import ch.openchvote.util.tuples.Octuple;
 
 import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-public class Proof extends Octuple<G1Point, G1Point, G1Point, Scalar, Scalar, Scalar, Vector<Scalar>, Scalar> {
+// A proof, either of decoded elements or as view of its octets whose elements are decoded on access.
+public class Proof {
 
     public static Proof INVALID = new Proof(new Vector.Builder<Scalar>(1).addValue(Scalar.of(BigInteger.ZERO)).build());
 
+    private static final int POINT_LENGTH = 48;
+    private static final int SCALAR_LENGTH = 32;
+    private static final int POINTS = 3;
+    // eCalc, r1Calc, r3Calc and the challenge
+    private static final int SCALARS = 4;
+
+    // the decoded elements, for views filled on first access
+    private final AtomicReferenceArray<G1Point> points;
+    // eCalc, r1Calc, r3Calc, m_1, ..., m_U, challenge in the order of the octets
+    private final AtomicReferenceArray<Scalar> scalars;
+    // the commitments of a decoded proof, null for views
+    private final Vector<Scalar> msgCommitments;
+    // the octets of a view, null for decoded proofs
+    private final OctetString octets;
+    private final int U;
+
     public Proof(G1Point abar, G1Point bbar, G1Point d, Scalar ecalc, Scalar r1calc, Scalar r3calc, Vector<Scalar> msgCommitments, Scalar challange) {
-        super(abar, bbar, d, ecalc, r1calc, r3calc, msgCommitments, challange);
+        this.U = msgCommitments.getLength();
+        this.points = new AtomicReferenceArray<>(new G1Point[]{abar, bbar, d});
+        var scalars = new Scalar[SCALARS + U];
+        scalars[0] = ecalc;
+        scalars[1] = r1calc;
+        scalars[2] = r3calc;
+        for (int j = 1; j <= U; j++) {
+            scalars[2 + j] = msgCommitments.getValue(j);
+        }
+        scalars[SCALARS - 1 + U] = challange;
+        this.scalars = new AtomicReferenceArray<>(scalars);
+        this.msgCommitments = msgCommitments;
+        this.octets = null;
     }
 
     private Proof(Vector<Scalar> scalars){
-        super(new G1Point(), new G1Point(), new G1Point(), new Scalar(), new Scalar(), new Scalar(), scalars, new Scalar());
+        this(new G1Point(), new G1Point(), new G1Point(), new Scalar(), new Scalar(), new Scalar(), scalars, new Scalar());
+    }
+
+    private Proof(OctetString octets, int U){
+        this.points = new AtomicReferenceArray<>(POINTS);
+        this.scalars = new AtomicReferenceArray<>(SCALARS + U);
+        this.msgCommitments = null;
+        this.octets = octets;
+        this.U = U;
+    }
+
+    // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-octets-to-proof
+    // A view of the proof octets, INVALID if their length is not the one of a proof. No element is decoded yet
+    public static Proof fromOctets(OctetString proof_octets){
+        var floor = POINTS * POINT_LENGTH + SCALARS * SCALAR_LENGTH;
+        if(proof_octets.isInvalid() || proof_octets.length < floor || (proof_octets.length - floor) % SCALAR_LENGTH != 0) return INVALID;
+        return new Proof(proof_octets, (proof_octets.length - floor) / SCALAR_LENGTH);
     }
 
     public G1Point getAbar() {
-        return getFirst();
+        return getPoint(0);
     }
 
     public G1Point getBbar() {
-        return getSecond();
+        return getPoint(1);
     }
 
     public G1Point getD() {
-        return getThird();
+        return getPoint(2);
     }
 
     public Scalar getECalc() {
-        return getFourth();
+        return getScalar(0);
     }
 
     public Scalar getR1Calc() {
-        return getFifth();
+        return getScalar(1);
     }
 
     public Scalar getR3Calc() {
-        return getSixth();
+        return getScalar(2);
     }
 
-    public Vector<Scalar> getMsg_commitments() {
-        return getSeventh();
+    public Scalar getChallenge() {
+        return getScalar(SCALARS - 1 + U);
     }
 
-    public Scalar getChallenge() {
-        return getEighth();
+    // the number U of undisclosed messages
+    public int getMsgCommitmentsLength(){
+        return U;
+    }
+
+    // m_j for j = 1, ..., U
+    public Scalar getMsgCommitment(int j){
+        if(j < 1 || j > U) throw new IndexOutOfBoundsException(j);
+        return getScalar(2 + j);
+    }
+
+    // all m_j, for views a copy of the decoded commitments
+    public Vector<Scalar> getMsg_commitments() {
+        if(octets == null) return msgCommitments;
+        var builder = new Vector.Builder<Scalar>(U);
+        for (int j = 1; j <= U; j++) {
+            builder.addValue(getMsgCommitment(j));
+        }
+        return builder.build();
     }
 
     public Object[] toObjectArray(){
-        Object[] temp = new Object[7 + getMsg_commitments().getLength()];
-        temp[0] = getFirst();
-        temp[1] = getSecond();
-        temp[2] = getThird();
-        temp[3] = getFourth();
-        temp[4] = getFifth();
-        temp[5] = getSixth();
-        for (int i = 1; i <= getMsg_commitments().getLength(); i++) {
-            temp[i+5] = getMsg_commitments().getValue(i);
+        Object[] temp = new Object[7 + U];
+        temp[0] = getAbar();
+        temp[1] = getBbar();
+        temp[2] = getD();
+        temp[3] = getECalc();
+        temp[4] = getR1Calc();
+        temp[5] = getR3Calc();
+        for (int i = 1; i <= U; i++) {
+            temp[i+5] = getMsgCommitment(i);
         }
-        temp[temp.length-1] = getEighth();
+        temp[temp.length-1] = getChallenge();
         return temp;
     }
 
+    // decodes all elements of a view, the first invalid one makes the proof invalid. The scalars are checked before
+    // the points, which need a decompression and a subgroup check
     public boolean isInvalid(){
-        return getAbar().isInvalid() || getBbar().isInvalid() || getD().isInvalid() || getECalc().isInvalid() || getR1Calc().isInvalid() || getR3Calc().isInvalid() || getChallenge().isInvalid();
+        for (int i = 0; i < SCALARS + U; i++) {
+            if(getScalar(i).isInvalid()) return true;
+        }
+        return getAbar().isInvalid() || getBbar().isInvalid() || getD().isInvalid();
+    }
+
+    // decoding is deterministic, concurrent accesses at most decode the same element twice
+    private G1Point getPoint(int i){
+        var point = points.get(i);
+        if(point == null){
+            point = G1Point.deserialize(octets.slice(i * POINT_LENGTH, POINT_LENGTH));
+            if(!point.isInvalid() && point.isZero()) point = new G1Point();
+            points.set(i, point);
+        }
+        return point;
+    }
+
+    // the i-th scalar in the order of the octets
+    private Scalar getScalar(int i){
+        var scalar = scalars.get(i);
+        if(scalar == null){
+            scalar = Scalar.fromCanonicalOctets(octets.slice(POINTS * POINT_LENGTH + i * SCALAR_LENGTH, SCALAR_LENGTH));
+            if(scalar.isInvalid() || scalar.isZero()) scalar = Scalar.INVALID;
+            scalars.set(i, scalar);
+        }
+        return scalar;
     }
 }
@@ -1,86 +1,177 @@
 package ch.bfh.p2bbs.Types;
 
+import ch.bfh.p2bbs.utils.ScalarField;
+
 import java.math.BigInteger;
-import java.util.Objects;
 
+import static ch.bfh.p2bbs.utils.Definitions.r;
+
+// Element of the scalar field modulo r, stored as four 64-bit limbs in Montgomery form (see ScalarField).
 public class Scalar {
     public static Scalar INVALID = new Scalar();
 
-    public final BigInteger value;
+    private final long[] limbs;
 
+    // value must be in [0, r), reduce other integers with BigInteger.mod(r) first
     public Scalar(BigInteger value){
-        this.value = value;
+        if(value.signum() < 0 || value.compareTo(r) >= 0) throw new IllegalArgumentException("The value of a scalar must be in [0, r)");
+        this.limbs = new long[ScalarField.LIMBS];
+        ScalarField.fromBigInteger(value, this.limbs);
     }
 
     public Scalar(){
-        this.value = null;
+        this.limbs = null;
+    }
+
+    private Scalar(long[] limbs){
+        this.limbs = limbs;
     }
 
     public static Scalar of(BigInteger value) {
         return new Scalar(value);
     }
 
+    // big-endian bytes of any integer below 2^512, reduced modulo r
+    public static Scalar fromBytes(byte[] bytes){
+        var limbs = new long[ScalarField.LIMBS];
+        ScalarField.fromBytes(bytes, 0, bytes.length, limbs);
+        return new Scalar(limbs);
+    }
+
+    // OS2IP of octets of any integer below 2^512, reduced modulo r, read from the octet string without copying
+    public static Scalar fromOctets(OctetString octets){
+        var limbs = new long[ScalarField.LIMBS];
+        var buffer = octets.asByteBuffer();
+        ScalarField.fromBytes(buffer, buffer.position(), octets.length, limbs);
+        return new Scalar(limbs);
+    }
+
+    // The scalar of a 32 octets big-endian encoding, INVALID for other lengths and for values >= r
+    public static Scalar fromCanonicalOctets(OctetString octets){
+        if(octets.length != ScalarField.BYTES) return INVALID;
+        var limbs = new long[ScalarField.LIMBS];
+        var buffer = octets.asByteBuffer();
+        if(!ScalarField.fromCanonicalBytes(buffer, buffer.position(), limbs)) return INVALID;
+        return new Scalar(limbs);
+    }
+
+    // the 32 bytes big-endian encoding of the scalar
+    public byte[] toBytes(){
+        var bytes = new byte[ScalarField.BYTES];
+        ScalarField.toBytes(limbs, bytes, 0);
+        return bytes;
+    }
+
+    // the 32 bytes big-endian encoding written into out from offset on
+    public void toBytes(byte[] out, int offset){
+        ScalarField.toBytes(limbs, out, offset);
+    }
+
+    public BigInteger toBigInteger(){
+        return ScalarField.toBigInteger(limbs);
+    }
+
+    // the value in [0, r), in place of the former public field value. Use toBigInteger()
+    @Deprecated
+    public BigInteger value(){
+        return toBigInteger();
+    }
+
+    // never negative, the value of a scalar is in [0, r)
     public int signum(){
-        return this.value.signum();
+        return isZero() ? 0 : 1;
     }
 
     public int bitLength(){
-        return this.value.bitLength();
+        return toBigInteger().bitLength();
     }
 
     public byte[] toByteArray(){
-        return this.value.toByteArray();
+        return toBigInteger().toByteArray();
     }
 
+    // a scalar is an element of Z_r, other moduli are not supported
     public Scalar mod(BigInteger modVal){
-        return Scalar.of(value.mod(modVal));
+        if(!modVal.equals(r)) throw new IllegalArgumentException("Scalars can only be reduced modulo r");
+        return this;
     }
 
     public Scalar add(Scalar other){
-        return new Scalar(value.add(other.value));
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.add(limbs, other.limbs, result);
+        return new Scalar(result);
     }
 
     public Scalar modInverse(BigInteger other){
-        return new Scalar(value.modInverse(other));
+        if(!other.equals(r)) throw new IllegalArgumentException("Scalars can only be inverted modulo r");
+        if(isZero()) throw new ArithmeticException("Zero is not invertible");
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.inverse(limbs, result);
+        return new Scalar(result);
+    }
+
+    // The inverses modulo r of all scalars, computed with a single field inversion
+    public static Scalar[] batchInverse(Scalar[] scalars){
+        var limbs = new long[scalars.length][];
+        var inverses = new long[scalars.length][ScalarField.LIMBS];
+        for (int i = 0; i < scalars.length; i++) {
+            if(scalars[i].isZero()) throw new ArithmeticException("Zero is not invertible");
+            limbs[i] = scalars[i].limbs;
+        }
+        ScalarField.batchInverse(limbs, inverses);
+        var result = new Scalar[scalars.length];
+        for (int i = 0; i < scalars.length; i++) {
+            result[i] = new Scalar(inverses[i]);
+        }
+        return result;
     }
 
     public boolean isZero(){
-        return Objects.equals(value, BigInteger.ZERO);
+        return ScalarField.isZero(limbs);
     }
 
     public int compareTo(BigInteger other){
-        return value.compareTo(other);
+        return toBigInteger().compareTo(other);
     }
 
     public Scalar multiply(Scalar scalar){
-        return new Scalar(value.multiply(scalar.value));
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.multiply(limbs, scalar.limbs, result);
+        return new Scalar(result);
     }
 
     public Scalar negate(){
-        return new Scalar(value.negate());
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.negate(limbs, result);
+        return new Scalar(result);
     }
 
     public boolean biggerOrSameThan(BigInteger other){
-        return value.compareTo(other) >= 0;
+        return compareTo(other) >= 0;
     }
 
     public boolean isInvalid(){
-        return this.value == null;
+        return this.limbs == null;
     }
 
     public Scalar power(int exponent){
-        return new Scalar(this.value.pow(exponent));
+        if(exponent < 0) throw new ArithmeticException("Negative exponent");
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.power(limbs, new long[]{Integer.toUnsignedLong(exponent), 0, 0, 0}, result);
+        return new Scalar(result);
     }
     public Scalar substract(Scalar other){
-        return new Scalar(this.value.subtract(other.value));
+        var result = new long[ScalarField.LIMBS];
+        ScalarField.subtract(limbs, other.limbs, result);
+        return new Scalar(result);
     }
 
     @Override
     public String toString() {
-        return this.value.toString(16);
+        return toBigInteger().toString(16);
     }
 
     public boolean equals(Scalar other){
-        return this.value.equals(other.value);
+        return ScalarField.equals(this.limbs, other.limbs);
     }
 }
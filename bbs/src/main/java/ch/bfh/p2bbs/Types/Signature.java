@@ -1,31 +1,72 @@
 package ch.bfh.p2bbs.Types;
 
+import java.util.Arrays;
+
+// A signature (A, e), either of decoded elements or as view of its octets like a Proof view.
 public class Signature {
 
     public static Signature INVALID = new Signature();
 
-    private final G1Point A;
-    private final Scalar e;
+    private static final int POINT_LENGTH = 48;
+    private static final int SCALAR_LENGTH = 32;
+
+    // decoded on first access for views
+    private volatile G1Point A;
+    private volatile Scalar e;
+    // the octets of a view, null for decoded signatures
+    private final OctetString octets;
 
     private Signature(){
         this.A = null;
         this.e = null;
+        this.octets = null;
     }
 
     public Signature(G1Point A, Scalar e) {
         this.A = A;
         this.e = e;
+        this.octets = null;
+    }
+
+    private Signature(OctetString octets){
+        this.A = null;
+        this.e = null;
+        this.octets = octets;
+    }
+
+    // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-octets-to-signature
+    // A view of the signature octets, INVALID if their length is not the one of a signature. No element is decoded yet
+    public static Signature fromOctets(OctetString signature_octets){
+        if(signature_octets.length != POINT_LENGTH + SCALAR_LENGTH) return INVALID;
+        return new Signature(signature_octets);
     }
 
+    // decodes both elements of a view
     public boolean isInvalid(){
-        return A == null || e == null;
+        if(octets == null) return A == null || e == null;
+        return getPoint().isInvalid() || getScalar().isInvalid();
     }
 
+    // for views an invalid point if A does not decode, is the identity or is not in G1
     public G1Point getPoint(){
+        var A = this.A;
+        if(A == null && octets != null){
+            // decoding is deterministic, concurrent accesses at most decode A twice
+            A = G1Point.deserialize(octets.slice(0, POINT_LENGTH));
+            if(!A.isInvalid() && A.isZero()) A = new G1Point();
+            this.A = A;
+        }
         return A;
     }
 
+    // for views Scalar.INVALID if e is 0 or its octets encode a value >= r
     public Scalar getScalar(){
+        var e = this.e;
+        if(e == null && octets != null){
+            e = Scalar.fromCanonicalOctets(octets.slice(POINT_LENGTH, SCALAR_LENGTH));
+            if(e.isInvalid() || e.isZero()) e = Scalar.INVALID;
+            this.e = e;
+        }
         return e;
     }
 
@@ -35,11 +76,16 @@ public class Signature {
 
         Signature other = (Signature) object;
 
-        if (!this.A.equals(other.A)) return false;
-        return this.e.equals(other.e);
+        if (!this.getPoint().equals(other.getPoint())) return false;
+        return this.getScalar().equals(other.getScalar());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getPoint().hashCode() + Arrays.hashCode(getScalar().toBytes());
     }
 
     public String toString() {
-        return String.format("(%s,%s)", this.A.toString(), this.e.toString());
+        return String.format("(%s,%s)", this.getPoint().toString(), this.getScalar().toString());
     }
 }
@@ -1,11 +1,12 @@
 package ch.bfh.p2bbs.key;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.G2Point;
 import ch.bfh.p2bbs.Types.OctetString;
 import ch.bfh.p2bbs.Types.Scalar;
 
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 
 import static ch.bfh.p2bbs.utils.Definitions.*;
 import static ch.bfh.p2bbs.utils.helper.*;
@@ -13,16 +14,23 @@ import static ch.bfh.p2bbs.utils.helper.*;
 public class KeyGen {
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-secret-key
     public static Scalar KeyGen(OctetString key_material, OctetString key_info, OctetString key_dst) {
-        var api_id =  CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
-        if(key_dst.length == 0) key_dst = api_id.concat("KEYGEN_DST_", StandardCharsets.US_ASCII);
+        return KeyGen(Ciphersuite.BLS12_381_SHA_256, key_material, key_info, key_dst);
+    }
+
+    public static Scalar KeyGen(Ciphersuite ciphersuite, OctetString key_material, OctetString key_info, OctetString key_dst) {
+        return KeyGen(BbsContext.of(ciphersuite), key_material, key_info, key_dst);
+    }
+
+    public static Scalar KeyGen(BbsContext context, OctetString key_material, OctetString key_info, OctetString key_dst) {
+        if(key_dst.length == 0) key_dst = context.getKeyGenDst();
         if(key_material.length < 32) return Scalar.INVALID;
         if(key_info.length > 65535) return Scalar.INVALID;
         var derive_input = key_material.concat(i2osp(Scalar.of(BigInteger.valueOf(key_info.length)), 2)).concat(key_info);
-        return hash_to_scalar(derive_input, key_dst);
+        return hash_to_scalar(derive_input, key_dst, context.getCiphersuite());
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-public-key
     public static OctetString SkToPk(Scalar SK){
-        return new OctetString(G2Point.GENERATOR.times(SK).serialize());
+        return new OctetString(G2Point.GENERATOR.timesFixedBase(SK).serialize());
     }
 }
@@ -1,10 +1,13 @@
 package ch.bfh.p2bbs.proof;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.*;
 import ch.bfh.p2bbs.excptions.Abort;
+import ch.bfh.p2bbs.utils.Serializer;
 import ch.openchvote.util.sequence.Vector;
 
-import java.nio.charset.StandardCharsets;
+import java.math.BigInteger;
 import java.util.function.Function;
 import java.util.function.IntConsumer;
 
@@ -15,14 +18,21 @@ import static ch.bfh.p2bbs.utils.helper.*;
 public class ProofGen {
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-proof-generation-proofgen
     public static OctetString ProofGen(OctetString publicKey, OctetString signature, OctetString header, OctetString ph, Vector<OctetString> messages, Vector<Integer> disclosed_indexes){
-        var api_id = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
-        var message_scalars = messages_to_scalars(messages, api_id);
-        var generators = create_generators(message_scalars.getLength()+1, api_id);
-        return CoreProofGen(publicKey, signature, generators, header, ph, message_scalars, disclosed_indexes, api_id);
+        return ProofGen(Ciphersuite.BLS12_381_SHA_256, publicKey, signature, header, ph, messages, disclosed_indexes);
+    }
+
+    public static OctetString ProofGen(Ciphersuite ciphersuite, OctetString publicKey, OctetString signature, OctetString header, OctetString ph, Vector<OctetString> messages, Vector<Integer> disclosed_indexes) {
+        return ProofGen(BbsContext.of(ciphersuite), publicKey, signature, header, ph, messages, disclosed_indexes);
+    }
+
+    public static OctetString ProofGen(BbsContext context, OctetString publicKey, OctetString signature, OctetString header, OctetString ph, Vector<OctetString> messages, Vector<Integer> disclosed_indexes) {
+        var message_scalars = context.messagesToScalars(messages);
+        var generators = context.getGenerators(message_scalars.getLength()+1);
+        return CoreProofGen(publicKey, signature, generators, header, ph, message_scalars, disclosed_indexes, context);
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-coreproofgen
-    static OctetString CoreProofGen(OctetString publicKey, OctetString signature_octets, Vector<G1Point> generators, OctetString header, OctetString ph, Vector<Scalar> messages, Vector<Integer> disclosed_indexes, OctetString api_id) {
+    static OctetString CoreProofGen(OctetString publicKey, OctetString signature_octets, Vector<G1Point> generators, OctetString header, OctetString ph, Vector<Scalar> messages, Vector<Integer> disclosed_indexes, BbsContext context) {
         var signature_result = octets_to_signature(signature_octets);
         if(signature_result.isInvalid()) return OctetString.INVALID;
         var L = messages.getLength();
@@ -40,15 +50,15 @@ public class ProofGen {
         var disclosed_messages = getIndexedMessages(messages, ix);
         var undisclosed_messages = getIndexedMessages(messages, jx);
         var random_scalars = calculate_random_scalars(5+U);
-        var init_res = ProofInit(publicKey, signature_result, generators, random_scalars, header, messages, undisclosed_indexes, api_id);
+        var init_res = ProofInit(publicKey, signature_result, generators, random_scalars, header, messages, undisclosed_indexes, context);
         if(init_res.isInvalid()) return OctetString.INVALID;
-        var challenge = ProofChallengeCalculate(init_res, disclosed_messages, disclosed_indexes, ph, api_id);
+        var challenge = ProofChallengeCalculate(init_res, disclosed_messages, disclosed_indexes, ph, context);
         if(challenge.isInvalid()) return OctetString.INVALID;
         return ProofFinalize(init_res, challenge, signature_result.getScalar(), random_scalars, undisclosed_messages);
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-proof-initialization
-    static InitRes ProofInit(OctetString publicKey, Signature signature, Vector<G1Point> generators, Vector<Scalar> random_scalars, OctetString header, Vector<Scalar> messages, Vector<Integer> undisclosed_indexes, OctetString api_id) {
+    static InitRes ProofInit(OctetString publicKey, Signature signature, Vector<G1Point> generators, Vector<Scalar> random_scalars, OctetString header, Vector<Scalar> messages, Vector<Integer> undisclosed_indexes, BbsContext context) {
         var L = messages.getLength();
         var U = undisclosed_indexes.getLength();
         var jx = undisclosed_indexes;
@@ -69,13 +79,33 @@ public class ProofGen {
             if(el < 1 || el > (L)) throw new Abort("A undisclosed index is smaller than 0 or bigger that the count of messages");
         }
         if(U>L) throw new Abort("More undisclosed indexes than messages");
-        var domain = calculate_domain(publicKey, Q1, MsgGenerators, header, api_id);
-        var B = P1.add(Q1.times(domain)).add(G1Point.sumOfScalarMultiply(H_x, messages));
+        var domain = calculate_domain(publicKey, Q1, MsgGenerators, header, context);
+        // B = P1 + Q1 * domain + H_1 * msg_1 + ... + H_L * msg_L as one multi-scalar multiplication
+        var B_points = new G1Point[L+2];
+        var B_scalars = new Scalar[L+2];
+        B_points[0] = context.getP1();
+        B_scalars[0] = Scalar.of(BigInteger.ONE);
+        B_points[1] = Q1;
+        B_scalars[1] = domain;
+        for (int i = 1; i <= L; i++) {
+            B_points[i+1] = H_x.getValue(i);
+            B_scalars[i+1] = messages.getValue(i);
+        }
+        var B = G1Point.sumOfScalarMultiply(B_points, B_scalars);
         var D = B.times(r2);
         var Abar = signature.getPoint().times((r1.multiply(r2)));
-        var Bbar = D.times(r1).subtract(Abar.times(signature.getScalar()));
-        var T1 = Abar.times(e_).add(D.times(r1_));
-        var T2 = D.times(r3_).add(G1Point.sumOfScalarMultiply(H_jx, m_jx));
+        // the joint evaluations share the doublings of their terms
+        var Bbar = G1Point.sumOfScalarMultiply(new G1Point[]{D, Abar}, new Scalar[]{r1, signature.getScalar().negate()});
+        var T1 = G1Point.sumOfScalarMultiply(new G1Point[]{Abar, D}, new Scalar[]{e_, r1_});
+        var T2_points = new G1Point[U+1];
+        var T2_scalars = new Scalar[U+1];
+        T2_points[0] = D;
+        T2_scalars[0] = r3_;
+        for (int j = 1; j <= U; j++) {
+            T2_points[j] = H_jx.getValue(j);
+            T2_scalars[j] = m_jx.getValue(j);
+        }
+        var T2 = G1Point.sumOfScalarMultiply(T2_points, T2_scalars);
         return new InitRes(Abar, Bbar, D, T1, T2, domain);
     }
 
@@ -94,12 +124,12 @@ public class ProofGen {
         var Bbar = init_res.getBbar();
         var D = init_res.getD();
         var r3 = r2.modInverse(r);
-        var eCalc= e_.add(e_value.multiply(challenge).mod(r)).mod(r);
-        var r1Calc = r1_.substract(r1.multiply(challenge)).mod(r);
-        var r3Calc = r3_.substract(r3.multiply(challenge)).mod(r);
+        var eCalc= e_.add(e_value.multiply(challenge));
+        var r1Calc = r1_.substract(r1.multiply(challenge));
+        var r3Calc = r3_.substract(r3.multiply(challenge));
         var builder = new Vector.Builder<Scalar>(U);
         for (int j = 1; j <= U; j++) {
-            builder.addValue(m_jx.getValue(j).add(undisclosed_x.getValue(j).multiply(challenge)).mod(r));
+            builder.addValue(m_jx.getValue(j).add(undisclosed_x.getValue(j).multiply(challenge)));
         }
         var m_j = builder.build();
         var proof = new Proof(Abar, Bbar, D, eCalc, r1Calc, r3Calc, m_j, challenge);
@@ -108,7 +138,13 @@ public class ProofGen {
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-proof-to-octets
     static OctetString proof_to_octets(Proof proof) {
-        return serialize(proof.toObjectArray());
+        var msg_commitments = proof.getMsg_commitments();
+        var serializer = new Serializer(Serializer.size(3, 0, 4 + msg_commitments.getLength(), 0));
+        serializer.add(proof.getAbar()).add(proof.getBbar()).add(proof.getD()).add(proof.getECalc()).add(proof.getR1Calc()).add(proof.getR3Calc());
+        for (int i = 1; i <= msg_commitments.getLength(); i++) {
+            serializer.add(msg_commitments.getValue(i));
+        }
+        return serializer.add(proof.getChallenge()).toOctetString();
     }
 
     public static Vector<Integer> splitIndexes(Vector<Integer> disclosed_indexes, int L, int U){
@@ -137,7 +173,7 @@ public class ProofGen {
     public static Vector<Scalar> calculate_random_scalars(int count){
         var builder = new Vector.Builder<Scalar>(count);
         for (int i = 0; i < count; i++) {
-            builder.addValue(os2ip(randomBytes(Expand_Len)).mod(r));
+            builder.addValue(os2ip(randomBytes(Expand_Len)));
         }
         return builder.build();
     }
@@ -1,55 +1,137 @@
 package ch.bfh.p2bbs.proof;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.*;
+import ch.bfh.p2bbs.utils.BatchPairingCheck;
+import ch.bfh.p2bbs.utils.GeneratorCache;
 import ch.openchvote.util.sequence.Vector;
 
-import java.nio.charset.StandardCharsets;
+import java.math.BigInteger;
 
 import static ch.bfh.p2bbs.utils.Definitions.*;
 import static ch.bfh.p2bbs.utils.helper.*;
 
 public class ProofVerify {
+
+    // the largest U + R of a proof that is verified, larger proofs are rejected before any generator is derived
+    public static final int DEFAULT_MAX_MESSAGES = GeneratorCache.DEFAULT_MAX_GENERATORS - 1;
+    private static volatile int maxMessages = DEFAULT_MAX_MESSAGES;
+
+    public static void setMaxMessages(int max){
+        if(max < 0) throw new IllegalArgumentException("The maximal number of messages must not be negative");
+        maxMessages = max;
+    }
+
+    public static int getMaxMessages(){
+        return maxMessages;
+    }
+
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-proof-verification-proofver
     public static boolean ProofVerify(OctetString publicKey, OctetString proof, OctetString header, OctetString ph, Vector<OctetString> disclosed_messages, Vector<Integer> disclosed_indexes) {
-        var api_id =  CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
-        var proof_len_floor = (3 * Octet_Point_Length.toInt()) + (4 * Octet_Scalar_Length.toInt());
-        if(proof.length < proof_len_floor) return false;
-        var U = (int) Math.floor((proof.length-proof_len_floor)/Octet_Scalar_Length.toInt());
+        return ProofVerify(Ciphersuite.BLS12_381_SHA_256, publicKey, proof, header, ph, disclosed_messages, disclosed_indexes);
+    }
+
+    public static boolean ProofVerify(Ciphersuite ciphersuite, OctetString publicKey, OctetString proof, OctetString header, OctetString ph, Vector<OctetString> disclosed_messages, Vector<Integer> disclosed_indexes) {
+        return ProofVerify(BbsContext.of(ciphersuite), publicKey, proof, header, ph, disclosed_messages, disclosed_indexes);
+    }
+
+    public static boolean ProofVerify(BbsContext context, OctetString publicKey, OctetString proof, OctetString header, OctetString ph, Vector<OctetString> disclosed_messages, Vector<Integer> disclosed_indexes) {
+        var proof_result = octets_to_proof(proof);
+        if(!isWellFormed(proof_result, disclosed_messages, disclosed_indexes)) return false;
+        var U = proof_result.getMsgCommitmentsLength();
         var R = disclosed_indexes.getLength();
-        var messageScalars = messages_to_scalars(disclosed_messages, api_id);
-        var generators = create_generators(U+R+1, api_id);
-        return CoreProofVerify(publicKey, proof, generators, header, ph, messageScalars, disclosed_indexes, api_id);
+        var messageScalars = context.messagesToScalars(disclosed_messages);
+        var generators = context.getGenerators(U+R+1);
+        return CoreProofVerify(publicKey, proof_result, generators, header, ph, messageScalars, disclosed_indexes, context);
+    }
+
+    // The checks that need neither hashing nor generators: the number of messages against getMaxMessages(), then the
+    // scalars (canonical and not 0) and last the points of the proof
+    private static boolean isWellFormed(Proof proof, Vector<OctetString> disclosed_messages, Vector<Integer> disclosed_indexes){
+        if(proof == Proof.INVALID) return false;
+        var R = disclosed_indexes.getLength();
+        if(disclosed_messages.getLength() != R) return false;
+        if((long) proof.getMsgCommitmentsLength() + R > maxMessages) return false;
+        return !proof.isInvalid();
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-coreproofverify
-    private static boolean CoreProofVerify(OctetString publicKey, OctetString proof_octets, Vector<G1Point> generators, OctetString header, OctetString ph, Vector<Scalar> disclosed_messages, Vector<Integer> disclosed_indexes, OctetString api_id) {
-        var proof_result = octets_to_proof(proof_octets);
-        if(proof_result.isInvalid()) return false;
+    // the elements of proof_result are already checked by isWellFormed
+    private static boolean CoreProofVerify(OctetString publicKey, Proof proof_result, Vector<G1Point> generators, OctetString header, OctetString ph, Vector<Scalar> disclosed_messages, Vector<Integer> disclosed_indexes, BbsContext context) {
         var Abar = proof_result.getAbar();
         var Bbar = proof_result.getBbar();
         var cp = proof_result.getChallenge();
-        var W = G2Point.deserialize(publicKey.toBytes());
+        var W = PreparedG2Point.ofPublicKey(publicKey);
         if(W.isInvalid()) return false;
-        var init_res = ProofVerifyInit(publicKey, proof_result, generators, header, disclosed_messages, disclosed_indexes, api_id);
+        var init_res = ProofVerifyInit(publicKey, proof_result, generators, header, disclosed_messages, disclosed_indexes, context);
         if(init_res.isInvalid()) return false;
-        var challenge = ProofChallengeCalculate(init_res, disclosed_messages, disclosed_indexes, ph, api_id);
+        var challenge = ProofChallengeCalculate(init_res, disclosed_messages, disclosed_indexes, ph, context);
         if(challenge.isInvalid()) return false;
         if(!cp.equals(challenge)) return false;
-        if(!Abar.pair(W).multiply(Bbar.pair(G2Point.GENERATOR.negate())).equals(GTElement.ONE)) return false;
+        if(!G1Point.pairingProductIsOne(new G1Point[]{Abar, Bbar}, new PreparedG2Point[]{W, PreparedG2Point.negatedGenerator()})) return false;
+        return true;
+    }
+
+    // Verifies many proofs at once, the i-th result equals ProofVerify with the i-th values of all inputs.
+    // The challenge of every proof is recomputed on its own, only the pairing checks e(Abar_i, W_i) * e(Bbar_i, -G2) == 1
+    // are combined in a BatchPairingCheck, one pairing per distinct public key plus one. If the combined check fails,
+    // the batch is bisected, so a proof is only accepted if its own pairing check holds.
+    public static Vector<Boolean> batchVerify(Vector<OctetString> publicKeys, Vector<OctetString> proofs, Vector<OctetString> headers, Vector<OctetString> phs, Vector<Vector<OctetString>> disclosed_messages, Vector<Vector<Integer>> disclosed_indexes){
+        return batchVerify(Ciphersuite.BLS12_381_SHA_256, publicKeys, proofs, headers, phs, disclosed_messages, disclosed_indexes);
+    }
+
+    public static Vector<Boolean> batchVerify(Ciphersuite ciphersuite, Vector<OctetString> publicKeys, Vector<OctetString> proofs, Vector<OctetString> headers, Vector<OctetString> phs, Vector<Vector<OctetString>> disclosed_messages, Vector<Vector<Integer>> disclosed_indexes) {
+        return batchVerify(BbsContext.of(ciphersuite), publicKeys, proofs, headers, phs, disclosed_messages, disclosed_indexes);
+    }
+
+    public static Vector<Boolean> batchVerify(BbsContext context, Vector<OctetString> publicKeys, Vector<OctetString> proofs, Vector<OctetString> headers, Vector<OctetString> phs, Vector<Vector<OctetString>> disclosed_messages, Vector<Vector<Integer>> disclosed_indexes) {
+        var n = publicKeys.getLength();
+        if(proofs.getLength() != n || headers.getLength() != n || phs.getLength() != n || disclosed_messages.getLength() != n || disclosed_indexes.getLength() != n) throw new IllegalArgumentException("All inputs of a batch must have the same length");
+        var batch = new BatchPairingCheck();
+        var positions = new int[n];
+        for (int i = 1; i <= n; i++) {
+            positions[i-1] = -1;
+            var proof = octets_to_proof(proofs.getValue(i));
+            if(!isWellFormed(proof, disclosed_messages.getValue(i), disclosed_indexes.getValue(i))) continue;
+            var U = proof.getMsgCommitmentsLength();
+            var R = disclosed_indexes.getValue(i).getLength();
+            var messageScalars = context.messagesToScalars(disclosed_messages.getValue(i));
+            var generators = context.getGenerators(U+R+1);
+            var position = batch.size();
+            if(addBatchCheck(batch, publicKeys.getValue(i), proof, generators, headers.getValue(i), phs.getValue(i), messageScalars, disclosed_indexes.getValue(i), context)) positions[i-1] = position;
+        }
+        var checked = batch.verify();
+        var builder = new Vector.Builder<Boolean>(n);
+        for (var position: positions) {
+            builder.addValue(position >= 0 && checked[position]);
+        }
+        return builder.build();
+    }
+
+    // Everything of CoreProofVerify up to the pairing check, which is added to the batch. False if the proof is already rejected before
+    private static boolean addBatchCheck(BatchPairingCheck batch, OctetString publicKey, Proof proof_result, Vector<G1Point> generators, OctetString header, OctetString ph, Vector<Scalar> disclosed_messages, Vector<Integer> disclosed_indexes, BbsContext context) {
+        var W = PreparedG2Point.ofPublicKey(publicKey);
+        if(W.isInvalid()) return false;
+        var init_res = ProofVerifyInit(publicKey, proof_result, generators, header, disclosed_messages, disclosed_indexes, context);
+        if(init_res.isInvalid()) return false;
+        var challenge = ProofChallengeCalculate(init_res, disclosed_messages, disclosed_indexes, ph, context);
+        if(challenge.isInvalid()) return false;
+        if(!proof_result.getChallenge().equals(challenge)) return false;
+        batch.add(publicKey.toString(), W, proof_result.getAbar(), new G1Point[]{proof_result.getBbar()}, new Scalar[]{Scalar.of(BigInteger.ONE)});
         return true;
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-proof-verification-initiali
-    private static InitRes ProofVerifyInit(OctetString PK, Proof proof, Vector<G1Point> generators, OctetString header, Vector<Scalar> disclosed_messages, Vector<Integer> disclosed_indexes, OctetString api_id) {
+    private static InitRes ProofVerifyInit(OctetString PK, Proof proof, Vector<G1Point> generators, OctetString header, Vector<Scalar> disclosed_messages, Vector<Integer> disclosed_indexes, BbsContext context) {
         var Abar = proof.getAbar();
         var Bbar = proof.getBbar();
         var D = proof.getD();
         var r1Calc = proof.getR1Calc();
         var r3Calc = proof.getR3Calc();
         var eCalc = proof.getECalc();
-        var commitments = proof.getMsg_commitments();
         var c = proof.getChallenge();
-        var U = commitments.getLength();
+        var U = proof.getMsgCommitmentsLength();
         var R = disclosed_indexes.getLength();
         var L = U + R;
         var ix = disclosed_indexes;
@@ -65,10 +147,27 @@ public class ProofVerify {
         var H_x = getHPoints(generators);
         var H_ix = getIndexedGenerators(H_x, ix);
         var H_jx = getIndexedGenerators(H_x, jx);
-        var domain = calculate_domain(PK, Q_1, H_x, header, api_id);
-        var T1 = Bbar.times(c).add(Abar.times(eCalc)).add(D.times(r1Calc));
-        var Bv = P1.add(Q_1.times(domain)).add(G1Point.sumOfScalarMultiply(H_ix, disclosed_messages));
-        var T2 = Bv.times(c).add(D.times(r3Calc)).add(G1Point.sumOfScalarMultiply(H_jx, commitments));
+        var domain = calculate_domain(PK, Q_1, H_x, header, context);
+        var T1 = G1Point.sumOfScalarMultiply(new G1Point[]{Bbar, Abar, D}, new Scalar[]{c, eCalc, r1Calc});
+        // T2 = Bv * c + D * r3Calc + H_j1 * commitment_1 + ... with Bv = P1 + Q_1 * domain + H_i1 * msg_i1 + ...
+        // expanded into one multi-scalar multiplication, so Bv is never computed on its own
+        var T2_points = new G1Point[R+U+3];
+        var T2_scalars = new Scalar[R+U+3];
+        T2_points[0] = context.getP1();
+        T2_scalars[0] = c;
+        T2_points[1] = Q_1;
+        T2_scalars[1] = c.multiply(domain);
+        for (int i = 1; i <= R; i++) {
+            T2_points[i+1] = H_ix.getValue(i);
+            T2_scalars[i+1] = c.multiply(disclosed_messages.getValue(i));
+        }
+        T2_points[R+2] = D;
+        T2_scalars[R+2] = r3Calc;
+        for (int j = 1; j <= U; j++) {
+            T2_points[R+j+2] = H_jx.getValue(j);
+            T2_scalars[R+j+2] = proof.getMsgCommitment(j);
+        }
+        var T2 = G1Point.sumOfScalarMultiply(T2_points, T2_scalars);
         return new InitRes(Abar, Bbar, D, T1, T2, domain);
     }
 
@@ -1,13 +1,20 @@
 package ch.bfh.p2bbs.signature;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.G1Point;
 import ch.bfh.p2bbs.Types.Signature;
 import ch.openchvote.util.sequence.Vector;
 import ch.bfh.p2bbs.Types.Scalar;
 import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.utils.Serializer;
 
 
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static ch.bfh.p2bbs.utils.Definitions.*;
 import static ch.bfh.p2bbs.utils.helper.*;
@@ -16,31 +23,97 @@ public class Sign {
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-signature-generation-sign
     public static OctetString Sign(Scalar secretKey, OctetString publicKey, OctetString header, Vector<OctetString> messages) {
-        var api_id = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
-        var message_scalars = messages_to_scalars(messages, api_id);
-        var generators = create_generators(message_scalars.getLength()+1, api_id);
-        return CoreSign(secretKey, publicKey, generators, header, message_scalars, api_id);
+        return Sign(Ciphersuite.BLS12_381_SHA_256, secretKey, publicKey, header, messages);
+    }
+
+    public static OctetString Sign(Ciphersuite ciphersuite, Scalar secretKey, OctetString publicKey, OctetString header, Vector<OctetString> messages) {
+        return Sign(BbsContext.of(ciphersuite), secretKey, publicKey, header, messages);
+    }
+
+    public static OctetString Sign(BbsContext context, Scalar secretKey, OctetString publicKey, OctetString header, Vector<OctetString> messages) {
+        var message_scalars = context.messagesToScalars(messages);
+        var generators = context.getGenerators(message_scalars.getLength()+1);
+        return CoreSign(secretKey, publicKey, generators, header, message_scalars, context);
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-coresign
-    private static OctetString CoreSign(Scalar secretKey, OctetString publicKey, Vector<G1Point> generators, OctetString header, Vector<Scalar> messages, OctetString api_id){
-        var signature_dst = api_id.concat("H2S_", StandardCharsets.US_ASCII);
+    private static OctetString CoreSign(Scalar secretKey, OctetString publicKey, Vector<G1Point> generators, OctetString header, Vector<Scalar> messages, BbsContext context){
         var L = messages.getLength();
         if(generators.getLength() < L + 1) return OctetString.INVALID;
         var Q1 = generators.getValue(1);
         var H_x = getHPoints(generators);
-        var domain = calculate_domain(publicKey, Q1, H_x, header, api_id);
-        var e = hash_to_scalar(serialize(prepareSignSerializationData(secretKey, domain, messages)), signature_dst);
+        var domain = calculate_domain(publicKey, Q1, H_x, header, context);
+        var e = calculate_e(secretKey, domain, messages, context);
+        var P1 = context.getP1();
         var B = P1.add(Q1.times(domain)).add(G1Point.sumOfScalarMultiply(H_x, messages));
         var A = B.times(secretKey.add(e).modInverse(r));
         return signature_to_octets(new Signature(A, e));
     }
 
-    private static Object[] prepareSignSerializationData(Scalar secretKey, Scalar domain, Vector<Scalar> messages){
-        var dataToBeSerialized = new Object[2+messages.getLength()];
-        dataToBeSerialized[0] = secretKey;
-        dataToBeSerialized[1] = domain;
-        System.arraycopy(messages.toArray(),0, dataToBeSerialized, 2, messages.getLength());
-        return dataToBeSerialized;
+    // Signs many message vectors with one key and header, the i-th signature is byte-identical to Sign(secretKey, publicKey, header, messages_i).
+    // The generators and the domain are computed once per number of messages, all (SK + e_i)^-1 with a single inversion,
+    // and B_i and A_i = B_i * (SK + e_i)^-1 are computed on the calling thread.
+    public static Vector<OctetString> signBatch(Scalar secretKey, OctetString publicKey, OctetString header, Vector<Vector<OctetString>> messages) {
+        return signBatch(secretKey, publicKey, header, messages, null);
+    }
+
+    // with an executor the computations of B_i and A_i are split over it, executor == null signs all messages on the calling thread
+    public static Vector<OctetString> signBatch(Scalar secretKey, OctetString publicKey, OctetString header, Vector<Vector<OctetString>> messages, Executor executor) {
+        return signBatch(Ciphersuite.BLS12_381_SHA_256, secretKey, publicKey, header, messages, executor);
+    }
+
+    public static Vector<OctetString> signBatch(Ciphersuite ciphersuite, Scalar secretKey, OctetString publicKey, OctetString header, Vector<Vector<OctetString>> messages, Executor executor) {
+        return signBatch(BbsContext.of(ciphersuite), secretKey, publicKey, header, messages, executor);
+    }
+
+    public static Vector<OctetString> signBatch(BbsContext context, Scalar secretKey, OctetString publicKey, OctetString header, Vector<Vector<OctetString>> messages, Executor executor) {
+        var P1 = context.getP1();
+        var n = messages.getLength();
+        var message_scalars = new ArrayList<Vector<Scalar>>(n);
+        var generators = new HashMap<Integer, Vector<G1Point>>();
+        var domains = new HashMap<Integer, Scalar>();
+        var es = new Scalar[n];
+        var denominators = new Scalar[n];
+        for (int i = 0; i < n; i++) {
+            var scalars = context.messagesToScalars(messages.getValue(i+1));
+            var L = scalars.getLength();
+            message_scalars.add(scalars);
+            if(!generators.containsKey(L)){
+                var L_generators = context.getGenerators(L+1);
+                generators.put(L, L_generators);
+                domains.put(L, calculate_domain(publicKey, L_generators.getValue(1), getHPoints(L_generators), header, context));
+            }
+            es[i] = calculate_e(secretKey, domains.get(L), scalars, context);
+            denominators[i] = secretKey.add(es[i]);
+        }
+        var inverses = Scalar.batchInverse(denominators);
+        var signatures = new ArrayList<CompletableFuture<OctetString>>(n);
+        for (int i = 0; i < n; i++) {
+            var scalars = message_scalars.get(i);
+            var L_generators = generators.get(scalars.getLength());
+            var domain = domains.get(scalars.getLength());
+            var e = es[i];
+            var inverse = inverses[i];
+            Supplier<OctetString> task = () -> {
+                var B = P1.add(L_generators.getValue(1).times(domain)).add(G1Point.sumOfScalarMultiply(getHPoints(L_generators), scalars));
+                return signature_to_octets(new Signature(B.times(inverse), e));
+            };
+            signatures.add(executor == null ? CompletableFuture.completedFuture(task.get()) : CompletableFuture.supplyAsync(task, executor));
+        }
+        var builder = new Vector.Builder<OctetString>(n);
+        for (var signature: signatures) {
+            builder.addValue(signature.join());
+        }
+        return builder.build();
+    }
+
+    // e = hash_to_scalar(serialize((SK, domain, msg_1, ..., msg_L)), signature_dst), serialized into the hash stream
+    private static Scalar calculate_e(Scalar secretKey, Scalar domain, Vector<Scalar> messages, BbsContext context){
+        var e_input = context.getHashToScalarExpander().start();
+        var serializer = new Serializer(e_input).add(secretKey).add(domain);
+        for (int i = 1; i <= messages.getLength(); i++) {
+            serializer.add(messages.getValue(i));
+        }
+        return hash_to_scalar(e_input);
     }
 }
@@ -1,9 +1,12 @@
 package ch.bfh.p2bbs.signature;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.*;
+import ch.bfh.p2bbs.utils.BatchPairingCheck;
 import ch.openchvote.util.sequence.Vector;
 
-import java.nio.charset.StandardCharsets;
+import java.math.BigInteger;
 
 import static ch.bfh.p2bbs.utils.Definitions.*;
 import static ch.bfh.p2bbs.utils.helper.*;
@@ -12,25 +15,82 @@ public class SignVerify {
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-signature-verification-veri
     public static boolean Verify(OctetString publicKey, OctetString signature, OctetString header, Vector<OctetString> messages){
-        var api_id = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
-        var message_scalars = messages_to_scalars(messages, api_id);
-        var generators = create_generators(message_scalars.getLength()+1, api_id);
-        return CoreVerify(publicKey, signature, generators, header, message_scalars, api_id);
+        return Verify(Ciphersuite.BLS12_381_SHA_256, publicKey, signature, header, messages);
+    }
+
+    public static boolean Verify(Ciphersuite ciphersuite, OctetString publicKey, OctetString signature, OctetString header, Vector<OctetString> messages) {
+        return Verify(BbsContext.of(ciphersuite), publicKey, signature, header, messages);
+    }
+
+    public static boolean Verify(BbsContext context, OctetString publicKey, OctetString signature, OctetString header, Vector<OctetString> messages) {
+        var message_scalars = context.messagesToScalars(messages);
+        var generators = context.getGenerators(message_scalars.getLength()+1);
+        return CoreVerify(publicKey, signature, generators, header, message_scalars, context);
     }
 
     // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-coreverify
-    private static boolean CoreVerify(OctetString publicKey, OctetString signature_octets, Vector<G1Point> generators, OctetString header, Vector<Scalar> messages, OctetString api_id) {
+    private static boolean CoreVerify(OctetString publicKey, OctetString signature_octets, Vector<G1Point> generators, OctetString header, Vector<Scalar> messages, BbsContext context) {
+        var signature = octets_to_signature(signature_octets);
+        if(signature.isInvalid()) return false;
+        // the public key is decoded and checked once, see PreparedG2Point
+        var W = PreparedG2Point.ofPublicKey(publicKey);
+        if(W.isInvalid()) return false;
+        var L = messages.getLength();
+        if(generators.getLength() != (L + 1)) return false;
+        var Q_1 = generators.getValue(1);
+        var H_x = getHPoints(generators);
+        var domain = calculate_domain(publicKey, Q_1, H_x, header, context);
+        var B = context.getP1().add(Q_1.times(domain)).add(G1Point.sumOfScalarMultiply(H_x, messages));
+        // W + e * G2 is paired only once, preparing its lines would not pay off
+        var W_e = W.getPoint().add(G2Point.GENERATOR.timesFixedBase(signature.getScalar()));
+        if(!G1Point.pairingProductIsOne(new G1Point[]{signature.getPoint(), B}, new G2Point[]{W_e, PreparedG2Point.negatedGenerator().getPoint()})) return false;
+        return true;
+    }
+
+    // Verifies many signatures at once, the i-th result equals Verify(publicKeys_i, signatures_i, headers_i, messages_i).
+    // The checks e(A_i, W_i) * e(B_i - e_i * A_i, -G2) == 1 are combined in a BatchPairingCheck, one pairing per
+    // distinct public key plus one. If the combined check fails, the batch is bisected to find the invalid signatures.
+    public static Vector<Boolean> batchVerify(Vector<OctetString> publicKeys, Vector<OctetString> signatures, Vector<OctetString> headers, Vector<Vector<OctetString>> messages){
+        return batchVerify(Ciphersuite.BLS12_381_SHA_256, publicKeys, signatures, headers, messages);
+    }
+
+    public static Vector<Boolean> batchVerify(Ciphersuite ciphersuite, Vector<OctetString> publicKeys, Vector<OctetString> signatures, Vector<OctetString> headers, Vector<Vector<OctetString>> messages) {
+        return batchVerify(BbsContext.of(ciphersuite), publicKeys, signatures, headers, messages);
+    }
+
+    public static Vector<Boolean> batchVerify(BbsContext context, Vector<OctetString> publicKeys, Vector<OctetString> signatures, Vector<OctetString> headers, Vector<Vector<OctetString>> messages) {
+        var n = publicKeys.getLength();
+        if(signatures.getLength() != n || headers.getLength() != n || messages.getLength() != n) throw new IllegalArgumentException("All inputs of a batch must have the same length");
+        var batch = new BatchPairingCheck();
+        var positions = new int[n];
+        for (int i = 1; i <= n; i++) {
+            var message_scalars = context.messagesToScalars(messages.getValue(i));
+            var generators = context.getGenerators(message_scalars.getLength()+1);
+            positions[i-1] = batch.size();
+            if(!addBatchCheck(batch, publicKeys.getValue(i), signatures.getValue(i), generators, headers.getValue(i), message_scalars, context)) positions[i-1] = -1;
+        }
+        var checked = batch.verify();
+        var builder = new Vector.Builder<Boolean>(n);
+        for (var position: positions) {
+            builder.addValue(position >= 0 && checked[position]);
+        }
+        return builder.build();
+    }
+
+    // Everything of CoreVerify up to the pairing check, which is added to the batch. False if the signature is already rejected before
+    private static boolean addBatchCheck(BatchPairingCheck batch, OctetString publicKey, OctetString signature_octets, Vector<G1Point> generators, OctetString header, Vector<Scalar> messages, BbsContext context) {
         var signature = octets_to_signature(signature_octets);
         if(signature.isInvalid()) return false;
-        var W = G2Point.deserialize(publicKey.toBytes());
+        var W = PreparedG2Point.ofPublicKey(publicKey);
         if(W.isInvalid()) return false;
         var L = messages.getLength();
         if(generators.getLength() != (L + 1)) return false;
         var Q_1 = generators.getValue(1);
         var H_x = getHPoints(generators);
-        var domain = calculate_domain(publicKey, Q_1, H_x, header, api_id);
-        var B = P1.add(Q_1.times(domain)).add(G1Point.sumOfScalarMultiply(H_x, messages));
-        if(!signature.getPoint().pair(W.add(G2Point.GENERATOR.times(signature.getScalar()))).multiply(B.pair(G2Point.GENERATOR.negate())).equals(GTElement.ONE)) return false;
+        var domain = calculate_domain(publicKey, Q_1, H_x, header, context);
+        var B = context.getP1().add(Q_1.times(domain)).add(G1Point.sumOfScalarMultiply(H_x, messages));
+        var A = signature.getPoint();
+        batch.add(publicKey.toString(), W, A, new G1Point[]{B, A}, new Scalar[]{Scalar.of(BigInteger.ONE), signature.getScalar().negate()});
         return true;
     }
 }
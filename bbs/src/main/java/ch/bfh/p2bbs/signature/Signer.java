@@ -0,0 +1,71 @@
+package ch.bfh.p2bbs.signature;
+
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.Types.Signature;
+import ch.bfh.p2bbs.utils.ExpandMessage;
+import ch.bfh.p2bbs.utils.Serializer;
+import ch.openchvote.util.sequence.Vector;
+
+import static ch.bfh.p2bbs.utils.Definitions.*;
+import static ch.bfh.p2bbs.utils.helper.*;
+
+// see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-coresign
+// Signs L messages with one key and header like Sign, the domain and B_0 = P1 + Q_1 * domain are computed once.
+public final class Signer {
+
+    private final BbsContext context;
+    private final Scalar secretKey;
+    private final int L;
+    private final Vector<G1Point> H_x;
+    private final G1Point B_0;
+    // the input of e = hash_to_scalar(serialize((SK, domain, msg_1, ..., msg_L)), signature_dst) up to msg_1
+    private final ExpandMessage.Stream e_prefix;
+
+    private Signer(BbsContext context, Scalar secretKey, OctetString publicKey, OctetString header, int L){
+        var generators = context.getGenerators(L + 1);
+        var Q1 = generators.getValue(1);
+        this.context = context;
+        this.secretKey = secretKey;
+        this.L = L;
+        this.H_x = getHPoints(generators);
+        var domain = calculate_domain(publicKey, Q1, H_x, header, context);
+        this.B_0 = context.getP1().add(Q1.times(domain));
+        this.e_prefix = context.getHashToScalarExpander().start();
+        new Serializer(e_prefix).add(secretKey).add(domain);
+    }
+
+    public static Signer of(Scalar secretKey, OctetString publicKey, OctetString header, int L){
+        return of(Ciphersuite.BLS12_381_SHA_256, secretKey, publicKey, header, L);
+    }
+
+    public static Signer of(Ciphersuite ciphersuite, Scalar secretKey, OctetString publicKey, OctetString header, int L){
+        return of(BbsContext.of(ciphersuite), secretKey, publicKey, header, L);
+    }
+
+    public static Signer of(BbsContext context, Scalar secretKey, OctetString publicKey, OctetString header, int L){
+        if(L < 0) throw new IllegalArgumentException("The number of messages must not be negative");
+        return new Signer(context, secretKey, publicKey, header, L);
+    }
+
+    public int getMessagesLength(){
+        return L;
+    }
+
+    public OctetString sign(Vector<OctetString> messages){
+        if(messages.getLength() != L) throw new IllegalArgumentException("The signer signs " + L + " messages, not " + messages.getLength());
+        var message_scalars = context.messagesToScalars(messages);
+        var e_input = e_prefix.copy();
+        var serializer = new Serializer(e_input);
+        for (int i = 1; i <= L; i++) {
+            serializer.add(message_scalars.getValue(i));
+        }
+        var e = hash_to_scalar(e_input);
+        var B = L == 0 ? B_0 : B_0.add(G1Point.sumOfScalarMultiply(H_x, message_scalars));
+        var A = B.times(secretKey.add(e).modInverse(r));
+        return signature_to_octets(new Signature(A, e));
+    }
+}
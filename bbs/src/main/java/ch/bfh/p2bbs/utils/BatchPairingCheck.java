@@ -0,0 +1,98 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.PreparedG2Point;
+import ch.bfh.p2bbs.Types.Scalar;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static ch.bfh.p2bbs.utils.Definitions.SECURE_RANDOM;
+
+// Randomized batch of the pairing checks of signatures and proofs, split in halves to find the invalid ones if it fails.
+public class BatchPairingCheck {
+
+    private final List<Check> checks = new ArrayList<>();
+
+    // Adds e(X, W) * e(sum ys_j * Ys_j, -G2) == 1, checks with equal keys must have the same W
+    public void add(String key, PreparedG2Point W, G1Point X, G1Point[] Ys, Scalar[] ys){
+        if(Ys.length != ys.length) throw new IllegalArgumentException("The number of points and scalars must be equal");
+        checks.add(new Check(key, W, X, Ys, ys));
+    }
+
+    public int size(){
+        return checks.size();
+    }
+
+    // Result of every check in the order they were added
+    public boolean[] verify(){
+        var results = new boolean[checks.size()];
+        var indexes = new ArrayList<Integer>(checks.size());
+        for (int i = 0; i < checks.size(); i++) {
+            indexes.add(i);
+        }
+        bisect(indexes, results);
+        return results;
+    }
+
+    private void bisect(List<Integer> indexes, boolean[] results){
+        if(indexes.isEmpty()) return;
+        if(check(indexes)){
+            for (var i: indexes) {
+                results[i] = true;
+            }
+            return;
+        }
+        if(indexes.size() == 1) return;
+        var half = indexes.size() / 2;
+        bisect(indexes.subList(0, half), results);
+        bisect(indexes.subList(half, indexes.size()), results);
+    }
+
+    private boolean check(List<Integer> indexes){
+        var byKey = new LinkedHashMap<String, List<Integer>>();
+        for (var i: indexes) {
+            byKey.computeIfAbsent(checks.get(i).key(), key -> new ArrayList<>()).add(i);
+        }
+        var rs = new Scalar[checks.size()];
+        var Y_points = new ArrayList<G1Point>();
+        var Y_scalars = new ArrayList<Scalar>();
+        for (var i: indexes) {
+            var check = checks.get(i);
+            rs[i] = randomExponent();
+            for (int j = 0; j < check.Ys().length; j++) {
+                Y_points.add(check.Ys()[j]);
+                Y_scalars.add(rs[i].multiply(check.ys()[j]));
+            }
+        }
+        var Ps = new G1Point[byKey.size()+1];
+        var Qs = new PreparedG2Point[byKey.size()+1];
+        var k = 0;
+        for (var group: byKey.values()) {
+            var X_points = new G1Point[group.size()];
+            var X_scalars = new Scalar[group.size()];
+            for (int j = 0; j < group.size(); j++) {
+                X_points[j] = checks.get(group.get(j)).X();
+                X_scalars[j] = rs[group.get(j)];
+            }
+            Ps[k] = G1Point.sumOfScalarMultiply(X_points, X_scalars);
+            Qs[k] = checks.get(group.get(0)).W();
+            k++;
+        }
+        Ps[k] = G1Point.sumOfScalarMultiply(Y_points.toArray(new G1Point[0]), Y_scalars.toArray(new Scalar[0]));
+        Qs[k] = PreparedG2Point.negatedGenerator();
+        return G1Point.pairingProductIsOne(Ps, Qs);
+    }
+
+    private static Scalar randomExponent(){
+        BigInteger exponent;
+        do {
+            exponent = new BigInteger(64, SECURE_RANDOM);
+        } while (exponent.signum() == 0);
+        return Scalar.of(exponent);
+    }
+
+    private record Check(String key, PreparedG2Point W, G1Point X, G1Point[] Ys, Scalar[] ys) {}
+}
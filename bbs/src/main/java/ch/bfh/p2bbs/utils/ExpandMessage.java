@@ -0,0 +1,43 @@
+package ch.bfh.p2bbs.utils;
+
+import java.nio.ByteBuffer;
+
+// see: https://www.rfc-editor.org/rfc/rfc9380.html#name-expand_message
+// expand_message of one ciphersuite bound to a DST and an output length, the message is absorbed by a stream.
+public interface ExpandMessage {
+
+    int getLength();
+
+    Stream start();
+
+    default byte[] expand(byte[] msg){
+        return start().update(msg).finish();
+    }
+
+    // The message of one expansion, finish can be called once
+    interface Stream {
+
+        Stream update(byte[] bytes);
+
+        Stream update(byte[] bytes, int offset, int length);
+
+        // consumes the remaining bytes of the buffer
+        Stream update(ByteBuffer bytes);
+
+        Stream update(byte b);
+
+        // writes the getLength() uniform bytes to out, starting at offset
+        void finish(byte[] out, int offset);
+
+        default byte[] finish(){
+            var out = new byte[getLength()];
+            finish(out, 0);
+            return out;
+        }
+
+        int getLength();
+
+        // an independent stream that has absorbed the same bytes, to reuse a common prefix of many messages
+        Stream copy();
+    }
+}
@@ -0,0 +1,130 @@
+package ch.bfh.p2bbs.utils;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// see: https://www.rfc-editor.org/rfc/rfc9380.html#name-expand_message_xmd
+// expand_message_xmd with SHA-256, every stream starts from the precomputed state after Z_pad.
+public final class ExpandMessageXmd implements ExpandMessage {
+
+    private static final int B_IN_BYTES = 32;
+    private static final int S_IN_BYTES = 64;
+    private static final MessageDigest Z_PAD_STATE;
+
+    static {
+        try {
+            Z_PAD_STATE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Z_PAD_STATE.update(new byte[S_IN_BYTES]);
+    }
+
+    private final byte[] dst_prime;
+    private final byte[] b_0_suffix;
+    private final int len_in_bytes;
+    private final int ell;
+
+    public ExpandMessageXmd(byte[] dst, int len_in_bytes){
+        if(dst.length > 255) throw new IllegalArgumentException("The DST must not be longer than 255 bytes");
+        this.ell = (len_in_bytes + B_IN_BYTES - 1) / B_IN_BYTES;
+        if(ell > 255 || len_in_bytes > 65535 || len_in_bytes < 1) throw new IllegalArgumentException("Invalid output length " + len_in_bytes);
+        this.len_in_bytes = len_in_bytes;
+        // DST_prime = DST || I2OSP(len(DST), 1)
+        this.dst_prime = new byte[dst.length + 1];
+        System.arraycopy(dst, 0, dst_prime, 0, dst.length);
+        dst_prime[dst.length] = (byte) dst.length;
+        // l_i_b_str || I2OSP(0, 1) || DST_prime
+        this.b_0_suffix = new byte[3 + dst_prime.length];
+        b_0_suffix[0] = (byte) (len_in_bytes >>> 8);
+        b_0_suffix[1] = (byte) len_in_bytes;
+        System.arraycopy(dst_prime, 0, b_0_suffix, 3, dst_prime.length);
+    }
+
+    @Override
+    public int getLength(){
+        return len_in_bytes;
+    }
+
+    @Override
+    public Stream start(){
+        return new Stream();
+    }
+
+    public final class Stream implements ExpandMessage.Stream {
+        private final MessageDigest digest;
+
+        private Stream(){
+            this(Z_PAD_STATE);
+        }
+
+        private Stream(MessageDigest state){
+            try {
+                this.digest = (MessageDigest) state.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Stream update(byte[] bytes){
+            digest.update(bytes);
+            return this;
+        }
+
+        @Override
+        public Stream update(byte[] bytes, int offset, int length){
+            digest.update(bytes, offset, length);
+            return this;
+        }
+
+        @Override
+        public Stream update(ByteBuffer bytes){
+            digest.update(bytes);
+            return this;
+        }
+
+        @Override
+        public Stream update(byte b){
+            digest.update(b);
+            return this;
+        }
+
+        @Override
+        public int getLength(){
+            return len_in_bytes;
+        }
+
+        @Override
+        public Stream copy(){
+            return new Stream(digest);
+        }
+
+        @Override
+        public void finish(byte[] out, int offset){
+            digest.update(b_0_suffix);
+            var b_0 = digest.digest();
+            var b_i = new byte[B_IN_BYTES];
+            var xored = new byte[B_IN_BYTES];
+            // b_1 = H(b_0 || I2OSP(1, 1) || DST_prime), b_i = H(strxor(b_0, b_(i-1)) || I2OSP(i, 1) || DST_prime)
+            // the blocks are written to out directly, only the last one is cut to len_in_bytes
+            for (int i = 1; i <= ell; i++) {
+                for (int j = 0; j < B_IN_BYTES; j++) {
+                    xored[j] = (byte) (b_0[j] ^ b_i[j]);
+                }
+                digest.update(xored);
+                digest.update((byte) i);
+                digest.update(dst_prime);
+                try {
+                    digest.digest(b_i, 0, B_IN_BYTES);
+                } catch (DigestException e) {
+                    throw new IllegalStateException(e);
+                }
+                var position = (i - 1) * B_IN_BYTES;
+                System.arraycopy(b_i, 0, out, offset + position, Math.min(B_IN_BYTES, len_in_bytes - position));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ch.bfh.p2bbs.utils;
+
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+
+import java.nio.ByteBuffer;
+
+// see: https://www.rfc-editor.org/rfc/rfc9380.html#name-expand_message_xof
+// expand_message_xof with SHAKE-256, the suffix after msg is precomputed.
+public final class ExpandMessageXof implements ExpandMessage {
+
+    private static final int SECURITY_BITS = 256;
+
+    private final byte[] msg_suffix;
+    private final int len_in_bytes;
+
+    public ExpandMessageXof(byte[] dst, int len_in_bytes){
+        if(dst.length > 255) throw new IllegalArgumentException("The DST must not be longer than 255 bytes");
+        if(len_in_bytes > 65535 || len_in_bytes < 1) throw new IllegalArgumentException("Invalid output length " + len_in_bytes);
+        this.len_in_bytes = len_in_bytes;
+        // I2OSP(len_in_bytes, 2) || DST || I2OSP(len(DST), 1)
+        this.msg_suffix = new byte[3 + dst.length];
+        msg_suffix[0] = (byte) (len_in_bytes >>> 8);
+        msg_suffix[1] = (byte) len_in_bytes;
+        System.arraycopy(dst, 0, msg_suffix, 2, dst.length);
+        msg_suffix[msg_suffix.length - 1] = (byte) dst.length;
+    }
+
+    @Override
+    public int getLength(){
+        return len_in_bytes;
+    }
+
+    @Override
+    public Stream start(){
+        return new Stream();
+    }
+
+    public final class Stream implements ExpandMessage.Stream {
+        private final SHAKEDigest digest;
+
+        private Stream(){
+            this.digest = new SHAKEDigest(SECURITY_BITS);
+        }
+
+        private Stream(SHAKEDigest state){
+            this.digest = new SHAKEDigest(state);
+        }
+
+        @Override
+        public Stream update(byte[] bytes){
+            digest.update(bytes, 0, bytes.length);
+            return this;
+        }
+
+        @Override
+        public Stream update(byte[] bytes, int offset, int length){
+            digest.update(bytes, offset, length);
+            return this;
+        }
+
+        @Override
+        public Stream update(ByteBuffer bytes){
+            if(bytes.hasArray()){
+                digest.update(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                bytes.position(bytes.limit());
+                return this;
+            }
+            var chunk = new byte[Math.min(bytes.remaining(), 4096)];
+            while (bytes.hasRemaining()){
+                var length = Math.min(chunk.length, bytes.remaining());
+                bytes.get(chunk, 0, length);
+                digest.update(chunk, 0, length);
+            }
+            return this;
+        }
+
+        @Override
+        public Stream update(byte b){
+            digest.update(b);
+            return this;
+        }
+
+        @Override
+        public int getLength(){
+            return len_in_bytes;
+        }
+
+        @Override
+        public Stream copy(){
+            return new Stream(digest);
+        }
+
+        @Override
+        public void finish(byte[] out, int offset){
+            digest.update(msg_suffix, 0, msg_suffix.length);
+            digest.doFinal(out, offset, len_in_bytes);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.ECPoint;
+import ch.bfh.evg.group.Group;
+
+import java.math.BigInteger;
+import java.util.List;
+
+// Lim-Lee comb table of a fixed base point, t teeth store 2^t - 1 points and leave d = ceil(bits/t) doublings.
+public class FixedBaseTable<E> {
+
+    public static final int DEFAULT_TEETH = 6;
+    public static final int MAX_TEETH = 12;
+
+    private final Group.Additive<E> group;
+    private final int teeth;
+    private final int spacing;
+    private final Object[] table;
+
+    public FixedBaseTable(Group.Additive<E> group, E base, int teeth){
+        if(teeth < 1 || teeth > MAX_TEETH) throw new IllegalArgumentException("The number of teeth must be between 1 and " + MAX_TEETH);
+        this.group = group;
+        this.teeth = teeth;
+        this.spacing = (group.getOrder().bitLength() + teeth - 1) / teeth;
+        this.table = new Object[(1 << teeth) - 1];
+        var row = base;
+        for (int j = 0; j < teeth; j++) {
+            if(j > 0){
+                for (int i = 0; i < spacing; i++) {
+                    row = group.twice(row);
+                }
+            }
+            var bit = 1 << j;
+            table[bit-1] = row;
+            for (int m = 1; m < bit; m++) {
+                table[bit+m-1] = group.add(get(m), row);
+            }
+        }
+        // affine entries make the additions during the multiplications cheaper, the base itself is not touched
+        for (int i = 1; i < table.length; i++) {
+            if(table[i] instanceof ECPoint<?, ?> point && !group.isZero(get(i+1))) point.normalize();
+        }
+    }
+
+    public int getTeeth(){
+        return teeth;
+    }
+
+    public int getSize(){
+        return table.length;
+    }
+
+    // k * base for any integer k, reduced modulo the group order
+    public E multiply(BigInteger k){
+        return sumOfMultiply(group, List.of(this), new BigInteger[]{k});
+    }
+
+    // sum(k_i * base_i), the tables with equal spacing share their doublings
+    public static <E> E sumOfMultiply(Group.Additive<E> group, List<FixedBaseTable<E>> tables, BigInteger[] ks){
+        if(tables.size() != ks.length) throw new IllegalArgumentException("The number of tables and scalars must be equal");
+        var reduced = new BigInteger[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            reduced[i] = ks[i].mod(group.getOrder());
+        }
+        E result = null;
+        var done = new boolean[tables.size()];
+        for (int first = 0; first < tables.size(); first++) {
+            if(done[first]) continue;
+            var spacing = tables.get(first).spacing;
+            E partial = null;
+            for (int col = spacing - 1; col >= 0; col--) {
+                if(partial != null) partial = group.twice(partial);
+                for (int i = first; i < tables.size(); i++) {
+                    var table = tables.get(i);
+                    if(table.spacing != spacing) continue;
+                    var digit = 0;
+                    for (int j = 0; j < table.teeth; j++) {
+                        if(reduced[i].testBit(col + j * spacing)) digit |= 1 << j;
+                    }
+                    if(digit == 0) continue;
+                    partial = partial == null ? table.get(digit) : group.add(partial, table.get(digit));
+                }
+            }
+            for (int i = first; i < tables.size(); i++) {
+                if(tables.get(i).spacing == spacing) done[i] = true;
+            }
+            if(partial != null) result = result == null ? partial : group.add(result, partial);
+        }
+        return result == null ? group.getZero() : result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E get(int digit){
+        return (E) table[digit-1];
+    }
+}
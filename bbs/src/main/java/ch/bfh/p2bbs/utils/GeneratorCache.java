@@ -0,0 +1,297 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Ciphersuite;
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ch.bfh.p2bbs.utils.Definitions.Expand_Len;
+import static ch.bfh.p2bbs.utils.helper.i2osp;
+
+// Process-wide cache of the generator sequences of create_generators per api_id, bounded in count and memory (LRU).
+public class GeneratorCache {
+
+    // estimated heap size of a G1 point in projective coordinates
+    static final int POINT_BYTES = 400;
+    public static final int DEFAULT_MAX_GENERATORS = 4096;
+    // the memory of DEFAULT_MAX_GENERATORS generators with comb tables of FixedBaseTable.DEFAULT_TEETH teeth (100 MiB),
+    // so that with the defaults both bounds allow the same number of generators
+    public static final long DEFAULT_MAX_MEMORY = (long) DEFAULT_MAX_GENERATORS * POINT_BYTES << FixedBaseTable.DEFAULT_TEETH;
+    private static final GeneratorCache INSTANCE = new GeneratorCache(DEFAULT_MAX_GENERATORS);
+    private static volatile boolean parallelDerivation = false;
+    private static volatile Executor derivationExecutor = ForkJoinPool.commonPool();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(4, 0.75f, true);
+    private final GeneratorTable table;
+    private final int teeth;
+    private int maxGenerators;
+    private long maxMemory = DEFAULT_MAX_MEMORY;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong extensions = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GeneratorCache(int maxGenerators){
+        this(maxGenerators, null);
+    }
+
+    // table == null stands for the GeneratorTable shipped in the jar, which is only loaded when needed
+    public GeneratorCache(int maxGenerators, GeneratorTable table){
+        this(maxGenerators, table, FixedBaseTable.DEFAULT_TEETH);
+    }
+
+    // teeth is the number of teeth of the comb tables of the generators, each table stores 2^teeth - 1 points
+    public GeneratorCache(int maxGenerators, GeneratorTable table, int teeth){
+        if(maxGenerators < 0) throw new IllegalArgumentException("The maximal number of cached generators must not be negative");
+        if(teeth < 1 || teeth > FixedBaseTable.MAX_TEETH) throw new IllegalArgumentException("The number of teeth must be between 1 and " + FixedBaseTable.MAX_TEETH);
+        this.maxGenerators = maxGenerators;
+        this.table = table;
+        this.teeth = teeth;
+    }
+
+    public static GeneratorCache getInstance(){
+        return INSTANCE;
+    }
+
+    public static void setParallelDerivation(boolean parallel){
+        parallelDerivation = parallel;
+    }
+
+    public static boolean isParallelDerivation(){
+        return parallelDerivation;
+    }
+
+    // Executor used for parallel derivation, ForkJoinPool.commonPool() by default
+    public static void setDerivationExecutor(Executor executor){
+        if(executor == null) throw new IllegalArgumentException("The derivation executor must not be null");
+        derivationExecutor = executor;
+    }
+
+    public static Executor getDerivationExecutor(){
+        return derivationExecutor;
+    }
+
+    // The generators of the SHA-256 suite
+    public Vector<G1Point> getGenerators(int count, OctetString api_id){
+        return getGenerators(count, Ciphersuite.BLS12_381_SHA_256, api_id);
+    }
+
+    public Vector<G1Point> getGenerators(int count, OctetString api_id, Executor executor){
+        return getGenerators(count, Ciphersuite.BLS12_381_SHA_256, api_id, executor);
+    }
+
+    // Derives missing generators according to the global setting, see setParallelDerivation
+    public Vector<G1Point> getGenerators(int count, Ciphersuite ciphersuite, OctetString api_id){
+        return getGenerators(count, ciphersuite, api_id, parallelDerivation ? derivationExecutor : null);
+    }
+
+    // Derives missing generators on the given executor, or sequentially if executor == null
+    public Vector<G1Point> getGenerators(int count, Ciphersuite ciphersuite, OctetString api_id, Executor executor){
+        if(count < 0) throw new IllegalArgumentException("The number of generators must not be negative");
+        var entry = getEntry(ciphersuite, api_id);
+        var snapshot = entry.snapshot;
+        if(snapshot.generators.length >= count){
+            hits.incrementAndGet();
+            return toVector(snapshot.generators, count);
+        }
+        synchronized (entry){
+            snapshot = entry.snapshot;
+            if(snapshot.generators.length < count){
+                if(snapshot.generators.length == 0) misses.incrementAndGet();
+                else extensions.incrementAndGet();
+                snapshot = entry.extend(count, executor);
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+        enforceBound(entry);
+        return toVector(snapshot.generators, count);
+    }
+
+    public synchronized void setMaxGenerators(int maxGenerators){
+        if(maxGenerators < 0) throw new IllegalArgumentException("The maximal number of cached generators must not be negative");
+        this.maxGenerators = maxGenerators;
+        enforceBound(null);
+    }
+
+    public synchronized int getMaxGenerators(){
+        return maxGenerators;
+    }
+
+    // Bound of getMemoryUsage() in bytes
+    public synchronized void setMaxMemory(long maxMemory){
+        if(maxMemory < 0) throw new IllegalArgumentException("The maximal memory must not be negative");
+        this.maxMemory = maxMemory;
+        enforceBound(null);
+    }
+
+    public synchronized long getMaxMemory(){
+        return maxMemory;
+    }
+
+    public int getTeeth(){
+        return teeth;
+    }
+
+    // Estimated memory of the cached generators in bytes, counting the comb table of every generator as built
+    public synchronized long getMemoryUsage(){
+        return memory(getCachedGenerators());
+    }
+
+    public synchronized int getCachedGenerators(){
+        var total = 0;
+        for (var entry: entries.values()) {
+            total += entry.snapshot.generators.length;
+        }
+        return total;
+    }
+
+    public synchronized int getCachedApiIds(){
+        return entries.size();
+    }
+
+    public long getHits(){
+        return hits.get();
+    }
+
+    public long getMisses(){
+        return misses.get();
+    }
+
+    public long getExtensions(){
+        return extensions.get();
+    }
+
+    public long getEvictions(){
+        return evictions.get();
+    }
+
+    public synchronized void clear(){
+        entries.clear();
+        hits.set(0);
+        misses.set(0);
+        extensions.set(0);
+        evictions.set(0);
+    }
+
+    // the tables hold generators of the SHA-256 suite
+    private synchronized Entry getEntry(Ciphersuite ciphersuite, OctetString api_id){
+        return entries.computeIfAbsent(ciphersuite.name() + ":" + api_id, key -> {
+            var table = this.table == null ? GeneratorTable.getDefault() : this.table;
+            var covered = ciphersuite == Ciphersuite.BLS12_381_SHA_256 && table.covers(api_id);
+            return covered ? new Entry(ciphersuite, api_id, teeth, table) : new Entry(ciphersuite, api_id, teeth);
+        });
+    }
+
+    // Derives the first count generators of the SHA-256 suite without consulting any cache or table
+    static GeneratorTable derive(int count, OctetString api_id){
+        var snapshot = new Entry(Ciphersuite.BLS12_381_SHA_256, api_id, FixedBaseTable.DEFAULT_TEETH).extend(count, null);
+        return new GeneratorTable(api_id, snapshot.generators, snapshot.v);
+    }
+
+    // Evicts the least recently used entries until the bounds hold, the entry just served is kept
+    private synchronized void enforceBound(Entry current){
+        var total = getCachedGenerators();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((total > maxGenerators || memory(total) > maxMemory) && iterator.hasNext()){
+            var entry = iterator.next();
+            if(entry == current) continue;
+            total -= entry.snapshot.generators.length;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    // a generator and the 2^teeth - 1 points of its comb table
+    private long memory(int generators){
+        return (long) generators * POINT_BYTES << teeth;
+    }
+
+    private static Vector<G1Point> toVector(G1Point[] generators, int count){
+        var builder = new Vector.Builder<G1Point>(count);
+        for (int i = 0; i < count; i++) {
+            builder.addValue(generators[i]);
+        }
+        return builder.build();
+    }
+
+    // Immutable state of a sequence: the generators derived so far and the seed v of the last one
+    private record Snapshot(G1Point[] generators, OctetString v) {}
+
+    // The suite provides expand_message and hash_to_curve_g1
+    private static class Entry {
+        private final Ciphersuite suite;
+        private final int teeth;
+        private final ExpandMessage seed_expander;
+        private final OctetString generator_dst;
+        private volatile Snapshot snapshot;
+
+        private Entry(Ciphersuite suite, OctetString api_id, int teeth){
+            this.suite = suite;
+            this.teeth = teeth;
+            this.seed_expander = suite.expander(api_id.concat("SIG_GENERATOR_SEED_", StandardCharsets.US_ASCII).toBytes(), Expand_Len);
+            this.generator_dst = api_id.concat("SIG_GENERATOR_DST_", StandardCharsets.US_ASCII);
+            var generator_seed = api_id.concat("MESSAGE_GENERATOR_SEED", StandardCharsets.US_ASCII);
+            var v = new OctetString(seed_expander.expand(generator_seed.toBytes()));
+            this.snapshot = new Snapshot(new G1Point[0], v);
+        }
+
+        private Entry(Ciphersuite suite, OctetString api_id, int teeth, GeneratorTable table){
+            this.suite = suite;
+            this.teeth = teeth;
+            this.seed_expander = suite.expander(api_id.concat("SIG_GENERATOR_SEED_", StandardCharsets.US_ASCII).toBytes(), Expand_Len);
+            this.generator_dst = api_id.concat("SIG_GENERATOR_DST_", StandardCharsets.US_ASCII);
+            // fixed base copies, the points of the table are shared by all caches
+            var generators = table.getGenerators();
+            for (int i = 0; i < generators.length; i++) {
+                generators[i] = generators[i].asFixedBase(teeth);
+            }
+            this.snapshot = new Snapshot(generators, table.getV());
+        }
+
+        // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-generators-calculation
+        private Snapshot extend(int count, Executor executor){
+            var current = snapshot;
+            var start = current.generators.length;
+            var generators = Arrays.copyOf(current.generators, count);
+            var seeds = new OctetString[count - start];
+            var v = current.v;
+            for (int i = start + 1; i <= count; i++) {
+                v = new OctetString(seed_expander.start().update(v.toBytes()).update(i2osp(Scalar.of(BigInteger.valueOf(i)), 8).toBytes()).finish());
+                seeds[i-start-1] = v;
+            }
+            if(executor == null || seeds.length < 2){
+                mapToCurve(seeds, generators, start, 0, seeds.length);
+            } else {
+                var chunkSize = Math.max(1, seeds.length / (4 * Runtime.getRuntime().availableProcessors()));
+                var tasks = new CompletableFuture<?>[(seeds.length + chunkSize - 1) / chunkSize];
+                for (int t = 0; t < tasks.length; t++) {
+                    var from = t * chunkSize;
+                    var to = Math.min(seeds.length, from + chunkSize);
+                    tasks[t] = CompletableFuture.runAsync(() -> mapToCurve(seeds, generators, start, from, to), executor);
+                }
+                CompletableFuture.allOf(tasks).join();
+            }
+            var extended = new Snapshot(generators, v);
+            snapshot = extended;
+            return extended;
+        }
+
+        private void mapToCurve(OctetString[] seeds, G1Point[] generators, int offset, int from, int to){
+            for (int j = from; j < to; j++) {
+                generators[offset+j] = suite.hash_to_curve_g1(seeds[j].toBytes(), generator_dst).asFixedBase(teeth);
+            }
+        }
+    }
+}
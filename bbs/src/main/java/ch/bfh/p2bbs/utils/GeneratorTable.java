@@ -0,0 +1,161 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.FpElement;
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static ch.bfh.p2bbs.utils.Definitions.*;
+
+// Precomputed prefix of the generator sequence of one api_id, shipped as a binary resource written by main (see pom.xml).
+public class GeneratorTable {
+
+    public static final String RESOURCE = "generators-sha256.bin";
+    public static final OctetString API_ID = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
+    public static GeneratorTable INVALID = new GeneratorTable();
+
+    private static final int MAGIC = 0x42425347; // "BBSG"
+    private static final int VERSION = 1;
+    private static final int COORDINATE_LENGTH = 48;
+    private static final int CHECKSUM_LENGTH = 32;
+
+    private final OctetString api_id;
+    private final G1Point[] generators;
+    private final OctetString v;
+
+    public GeneratorTable(OctetString api_id, G1Point[] generators, OctetString v) {
+        this.api_id = api_id;
+        this.generators = generators;
+        this.v = v;
+    }
+
+    private GeneratorTable() {
+        this.api_id = null;
+        this.generators = new G1Point[0];
+        this.v = null;
+    }
+
+    // Loaded on first access, an absent or corrupted resource results in INVALID
+    private static class Holder {
+        private static final GeneratorTable DEFAULT = load();
+    }
+
+    public static GeneratorTable getDefault(){
+        return Holder.DEFAULT;
+    }
+
+    private static GeneratorTable load(){
+        try (InputStream stream = GeneratorTable.class.getResourceAsStream(RESOURCE)){
+            if(stream == null) return INVALID;
+            return read(stream.readAllBytes());
+        } catch (IOException e) {
+            return INVALID;
+        }
+    }
+
+    public static GeneratorTable read(byte[] data){
+        if(data.length < CHECKSUM_LENGTH) return INVALID;
+        var content = Arrays.copyOf(data, data.length - CHECKSUM_LENGTH);
+        var checksum = Arrays.copyOfRange(data, data.length - CHECKSUM_LENGTH, data.length);
+        if(!MessageDigest.isEqual(sha256(content), checksum)) return INVALID;
+        var buffer = ByteBuffer.wrap(content);
+        try {
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return INVALID;
+            var api_id = new byte[buffer.getInt()];
+            buffer.get(api_id);
+            var count = buffer.getInt();
+            var v = new byte[Expand_Len];
+            buffer.get(v);
+            if(count < 0 || buffer.remaining() != count * 2 * COORDINATE_LENGTH) return INVALID;
+            var field = G1.getField();
+            var coordinate = new byte[COORDINATE_LENGTH];
+            var generators = new G1Point[count];
+            for (int i = 0; i < count; i++) {
+                buffer.get(coordinate);
+                var x = field.getElement(new BigInteger(1, coordinate));
+                buffer.get(coordinate);
+                var y = field.getElement(new BigInteger(1, coordinate));
+                if(!G1.getCurve().isMember(x, y)) return INVALID;
+                generators[i] = new G1Point(G1.getPoint(x, y));
+            }
+            return new GeneratorTable(new OctetString(api_id), generators, new OctetString(v));
+        } catch (RuntimeException e) {
+            return INVALID;
+        }
+    }
+
+    public byte[] write(){
+        var api_id_bytes = api_id.toBytes();
+        var buffer = ByteBuffer.allocate(4 + 4 + 4 + api_id_bytes.length + 4 + Expand_Len + generators.length * 2 * COORDINATE_LENGTH + CHECKSUM_LENGTH);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(api_id_bytes.length).put(api_id_bytes);
+        buffer.putInt(generators.length).put(v.toBytes());
+        for (var generator : generators) {
+            var point = generator.getPoint();
+            point.normalize();
+            buffer.put(coordinateBytes(point.get_X()));
+            buffer.put(coordinateBytes(point.get_Y()));
+        }
+        buffer.put(sha256(Arrays.copyOf(buffer.array(), buffer.position())));
+        return buffer.array();
+    }
+
+    public boolean isInvalid(){
+        return api_id == null;
+    }
+
+    public boolean covers(OctetString api_id){
+        return !isInvalid() && this.api_id.equals(api_id);
+    }
+
+    public OctetString getApiId(){
+        return api_id;
+    }
+
+    public G1Point[] getGenerators(){
+        return generators.clone();
+    }
+
+    public OctetString getV(){
+        return v;
+    }
+
+    public int getCount(){
+        return generators.length;
+    }
+
+    private static byte[] coordinateBytes(FpElement element){
+        var value = element.getValue().toByteArray();
+        var result = new byte[COORDINATE_LENGTH];
+        var length = Math.min(value.length, COORDINATE_LENGTH);
+        System.arraycopy(value, value.length - length, result, COORDINATE_LENGTH - length, length);
+        return result;
+    }
+
+    private static byte[] sha256(byte[] data){
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Usage: GeneratorTable <output file> <count>
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2) throw new IllegalArgumentException("Usage: GeneratorTable <output file> <count>");
+        var output = Path.of(args[0]);
+        var count = Integer.parseInt(args[1]);
+        var table = GeneratorCache.derive(count, API_ID);
+        if(output.getParent() != null) Files.createDirectories(output.getParent());
+        Files.write(output, table.write());
+    }
+}
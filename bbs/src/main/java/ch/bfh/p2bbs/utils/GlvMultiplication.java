@@ -0,0 +1,89 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.FpElement;
+import ch.bfh.evg.element.G1Point;
+import ch.bfh.evg.field.Fp;
+
+import java.math.BigInteger;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+import static ch.bfh.p2bbs.utils.Definitions.r;
+
+// Scalar multiplication in G1 with the GLV endomorphism, only correct for points of G1, which G1Point ensures when decoding.
+public class GlvMultiplication {
+
+    public static final BigInteger LAMBDA = new BigInteger("ac45a4010001a40200000000ffffffff", 16);
+    // the cube root of unity for which phi(P) == LAMBDA * P holds
+    public static final BigInteger BETA = new BigInteger("1a0111ea397fe699ec02408663d4de85aa0d857d89759ad4897d29650fb85f9b409427eb4f49fffd8bfd00000000aaac", 16);
+    private static final int WINDOW_SIZE = 4;
+    private static final Fp FIELD = (Fp) G1.getField();
+    private static final FpElement BETA_ELEMENT = FIELD.getElement(BETA);
+
+    // k * point for any integer k, reduced modulo r
+    public static G1Point multiply(G1Point point, BigInteger k){
+        var scalars = decompose(k);
+        if(G1.isZero(point) || (scalars[0].signum() == 0 && scalars[1].signum() == 0)) return G1.getZero();
+        var naf1 = wnaf(scalars[0]);
+        var naf2 = wnaf(scalars[1]);
+        var table = oddMultiples(point);
+        var phiTable = new G1Point[table.length];
+        for (int i = 0; i < table.length; i++) {
+            phiTable[i] = phi(table[i]);
+        }
+        G1Point result = null;
+        for (int i = Math.max(naf1.length, naf2.length) - 1; i >= 0; i--) {
+            if(result != null) result = G1.twice(result);
+            result = addDigit(result, table, i < naf1.length ? naf1[i] : 0);
+            result = addDigit(result, phiTable, i < naf2.length ? naf2[i] : 0);
+        }
+        return result == null ? G1.getZero() : result;
+    }
+
+    // phi(X, Y, Z) = (beta * X, Y, Z), equal to LAMBDA * point on the subgroup of order r
+    public static G1Point phi(G1Point point){
+        return G1.getPoint(FIELD.multiply(BETA_ELEMENT, point.get_X()), point.get_Y(), point.get_Z());
+    }
+
+    // Returns {k1, k2} with k mod r = k1 + k2 * LAMBDA and 0 <= k1, k2 < 2^128
+    public static BigInteger[] decompose(BigInteger k){
+        var quotientAndRemainder = k.mod(r).divideAndRemainder(LAMBDA);
+        return new BigInteger[]{quotientAndRemainder[1], quotientAndRemainder[0]};
+    }
+
+    // The odd multiples point, 3 * point, ..., (2^(w-1) - 1) * point
+    private static G1Point[] oddMultiples(G1Point point){
+        var table = new G1Point[1 << (WINDOW_SIZE - 2)];
+        table[0] = point;
+        var twice = G1.twice(point);
+        for (int i = 1; i < table.length; i++) {
+            table[i] = G1.add(table[i-1], twice);
+        }
+        return table;
+    }
+
+    private static G1Point addDigit(G1Point result, G1Point[] table, int digit){
+        if(digit == 0) return result;
+        var multiple = digit > 0 ? table[(digit - 1) / 2] : G1.negate(table[(-digit - 1) / 2]);
+        return result == null ? multiple : G1.add(result, multiple);
+    }
+
+    // Width-w non-adjacent form, least significant digit first, every non-zero digit is odd and |digit| < 2^(w-1)
+    static int[] wnaf(BigInteger k){
+        var digits = new int[k.bitLength() + 1];
+        var length = 0;
+        var modulus = 1 << WINDOW_SIZE;
+        while (k.signum() > 0){
+            var digit = 0;
+            if(k.testBit(0)){
+                digit = k.intValue() & (modulus - 1);
+                if(digit >= modulus / 2) digit -= modulus;
+                k = k.subtract(BigInteger.valueOf(digit));
+            }
+            digits[length++] = digit;
+            k = k.shiftRight(1);
+        }
+        var result = new int[length];
+        System.arraycopy(digits, 0, result, 0, length);
+        return result;
+    }
+}
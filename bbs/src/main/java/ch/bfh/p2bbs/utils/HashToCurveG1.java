@@ -0,0 +1,98 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.bls.Params;
+import ch.bfh.evg.field.Fp;
+import ch.bfh.p2bbs.Types.G1Point;
+
+import java.math.BigInteger;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+
+// see: https://www.rfc-editor.org/rfc/rfc9380.html#name-encoding-byte-strings-to-el
+// hash_to_curve for G1 with any expand_message, the library only supports expand_message_xmd.
+public final class HashToCurveG1 {
+
+    // L = ceil((ceil(log2(p)) + k) / 8) with k = 128
+    private static final int L = 64;
+    // len_in_bytes = count * m * L of hash_to_field with count = 2 and m = 1
+    public static final int LENGTH = 2 * L;
+    private static final Params.G1 PARAMS = Params.G1.BLS12_381;
+    private static final Fp FIELD = (Fp) G1.getField();
+    private static final BigInteger p = FIELD.getCharacteristic();
+    private static final BigInteger A = PARAMS.a_prime.mod(p);
+    private static final BigInteger B = PARAMS.b_prime.mod(p);
+    private static final BigInteger Z = PARAMS.Z.mod(p);
+    private static final BigInteger MINUS_B_OVER_A = B.negate().multiply(A.modInverse(p)).mod(p);
+    private static final BigInteger B_OVER_ZA = B.multiply(Z.multiply(A).modInverse(p)).mod(p);
+    // p = 3 mod 4, so the square root of a square x is x^((p+1)/4)
+    private static final BigInteger SQRT_EXPONENT = p.add(BigInteger.ONE).shiftRight(2);
+    // h_eff = 1 - z
+    private static final BigInteger H_EFF = new BigInteger("d201000000010001", 16);
+
+    private HashToCurveG1(){
+    }
+
+    // hash_to_curve(msg) with the msg already absorbed by the stream, whose output length must be LENGTH
+    public static G1Point hash_to_curve(ExpandMessage.Stream msg){
+        if(msg.getLength() != LENGTH) throw new IllegalArgumentException("hash_to_curve needs " + LENGTH + " uniform bytes");
+        var uniform_bytes = new byte[LENGTH];
+        msg.finish(uniform_bytes, 0);
+        var u_0 = hash_to_field(uniform_bytes, 0);
+        var u_1 = hash_to_field(uniform_bytes, L);
+        var R = G1.add(map_to_curve(u_0), map_to_curve(u_1));
+        return new G1Point(G1.times(R, H_EFF));
+    }
+
+    // e_j = OS2IP(tv) mod p of the L bytes from offset on
+    private static BigInteger hash_to_field(byte[] uniform_bytes, int offset){
+        var tv = new byte[L + 1];
+        System.arraycopy(uniform_bytes, offset, tv, 1, L);
+        return new BigInteger(tv).mod(p);
+    }
+
+    // see: https://www.rfc-editor.org/rfc/rfc9380.html#name-simplified-swu-method
+    private static ch.bfh.evg.element.G1Point map_to_curve(BigInteger u){
+        var Zu2 = Z.multiply(u.multiply(u)).mod(p);
+        var tv1 = Zu2.multiply(Zu2).add(Zu2).mod(p);
+        var x1 = tv1.signum() == 0 ? B_OVER_ZA : MINUS_B_OVER_A.multiply(BigInteger.ONE.add(tv1.modInverse(p))).mod(p);
+        var x = x1;
+        var gx = g(x1);
+        var y = gx.modPow(SQRT_EXPONENT, p);
+        if(!y.multiply(y).mod(p).equals(gx)){
+            // gx1 is not square, then gx2 = g(Z * u^2 * x1) is
+            x = Zu2.multiply(x1).mod(p);
+            y = g(x).modPow(SQRT_EXPONENT, p);
+        }
+        if(u.testBit(0) != y.testBit(0)) y = p.subtract(y).mod(p);
+        return iso_map(x, y);
+    }
+
+    // g(x) = x^3 + A' * x + B' of E'
+    private static BigInteger g(BigInteger x){
+        return x.multiply(x).add(A).multiply(x).add(B).mod(p);
+    }
+
+    // see: https://www.rfc-editor.org/rfc/rfc9380.html#name-11-isogeny-map-for-bls12-381
+    private static ch.bfh.evg.element.G1Point iso_map(BigInteger x_prime, BigInteger y_prime){
+        var x_num = polynomial(PARAMS.k1, x_prime);
+        var x_den = polynomial(PARAMS.k2, x_prime);
+        var y_num = polynomial(PARAMS.k3, x_prime);
+        var y_den = polynomial(PARAMS.k4, x_prime);
+        var denominators = x_den.multiply(y_den).mod(p);
+        if(denominators.signum() == 0) return G1.getZero();
+        // one inversion for both denominators
+        var inverse = denominators.modInverse(p);
+        var x = x_num.multiply(y_den).multiply(inverse).mod(p);
+        var y = y_prime.multiply(y_num).multiply(x_den).mod(p).multiply(inverse).mod(p);
+        return G1.getPoint(FIELD.getElement(x), FIELD.getElement(y));
+    }
+
+    // k[0] + k[1] * x + ... in Horner form
+    private static BigInteger polynomial(BigInteger[] k, BigInteger x){
+        var result = BigInteger.ZERO;
+        for (int i = k.length - 1; i >= 0; i--) {
+            result = result.multiply(x).add(k[i]).mod(p);
+        }
+        return result;
+    }
+}
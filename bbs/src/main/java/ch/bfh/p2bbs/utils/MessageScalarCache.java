@@ -0,0 +1,298 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Optional cache of the scalars of short repeated messages, keyed by a digest and disabled by default (see setEnabled).
+public class MessageScalarCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final int DEFAULT_MAX_MESSAGE_LENGTH = 256;
+    // estimated bytes per entry besides the digest: map entry, key buffer, scalar
+    static final int ENTRY_OVERHEAD = 176;
+    static final int DIGEST_LENGTH = 32;
+    // at least this many entries per stripe, so that small caches still compare frequencies over all their entries
+    private static final int MIN_STRIPE_ENTRIES = 256;
+    private static final int MAX_STRIPES = 16;
+    private static final MessageScalarCache INSTANCE = new MessageScalarCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_MESSAGE_LENGTH);
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    });
+    private static volatile boolean enabled = false;
+
+    private final Stripe[] stripes;
+    private volatile int maxEntries;
+    private volatile int maxMessageLength;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MessageScalarCache(int maxEntries, int maxMessageLength){
+        if(maxEntries < 0) throw new IllegalArgumentException("The maximal number of cached scalars must not be negative");
+        if(maxMessageLength < 0) throw new IllegalArgumentException("The maximal message length must not be negative");
+        var count = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxEntries / MIN_STRIPE_ENTRIES)));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(stripeEntries(maxEntries, i));
+        }
+        this.maxEntries = maxEntries;
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    public static MessageScalarCache getInstance(){
+        return INSTANCE;
+    }
+
+    // Whether messages_to_scalars uses the cache of getInstance()
+    public static void setEnabled(boolean enabled){
+        MessageScalarCache.enabled = enabled;
+    }
+
+    public static boolean isEnabled(){
+        return enabled;
+    }
+
+    public boolean isCacheable(ByteBuffer message){
+        return message.remaining() <= maxMessageLength;
+    }
+
+    // The cached scalar of the remaining bytes of message, null if it is not cached
+    public Scalar get(OctetString api_id, ByteBuffer message){
+        return get(digest(api_id, message));
+    }
+
+    // Offers the scalar of a message, it is only admitted if it is requested more often than the entry it replaces
+    public void put(OctetString api_id, ByteBuffer message, Scalar scalar){
+        if(!isCacheable(message)) return;
+        put(digest(api_id, message), scalar);
+    }
+
+    // The cached scalar of the message, or the one computed from it, which is then offered to the cache
+    public Scalar computeIfAbsent(OctetString api_id, ByteBuffer message, Function<ByteBuffer, Scalar> hash){
+        if(!isCacheable(message)) return hash.apply(message);
+        var key = digest(api_id, message);
+        var scalar = get(key);
+        if(scalar == null){
+            scalar = hash.apply(message);
+            put(key, scalar);
+        }
+        return scalar;
+    }
+
+    public synchronized void setMaxEntries(int maxEntries){
+        if(maxEntries < 0) throw new IllegalArgumentException("The maximal number of cached scalars must not be negative");
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < stripes.length; i++) {
+            evictions.addAndGet(stripes[i].setMaxEntries(stripeEntries(maxEntries, i)));
+        }
+    }
+
+    public int getMaxEntries(){
+        return maxEntries;
+    }
+
+    // Longer messages are neither looked up nor cached
+    public void setMaxMessageLength(int maxMessageLength){
+        if(maxMessageLength < 0) throw new IllegalArgumentException("The maximal message length must not be negative");
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    public int getMaxMessageLength(){
+        return maxMessageLength;
+    }
+
+    public int getCachedScalars(){
+        var total = 0;
+        for (var stripe: stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    // Estimated memory used by the entries in bytes
+    public long getMemoryUsage(){
+        return (long) getCachedScalars() * (DIGEST_LENGTH + ENTRY_OVERHEAD);
+    }
+
+    public long getHits(){
+        return hits.get();
+    }
+
+    public long getMisses(){
+        return misses.get();
+    }
+
+    // Share of the lookups that were served from the cache, 0 before the first lookup
+    public double getHitRate(){
+        var hits = this.hits.get();
+        var total = hits + misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long getRejections(){
+        return rejections.get();
+    }
+
+    public long getEvictions(){
+        return evictions.get();
+    }
+
+    public void clear(){
+        for (var stripe: stripes) {
+            stripe.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+        rejections.set(0);
+        evictions.set(0);
+    }
+
+    private Scalar get(ByteBuffer key){
+        var scalar = stripe(key).get(key);
+        if(scalar == null) misses.incrementAndGet();
+        else hits.incrementAndGet();
+        return scalar;
+    }
+
+    private void put(ByteBuffer key, Scalar scalar){
+        switch (stripe(key).put(key, scalar)) {
+            case REJECTED -> rejections.incrementAndGet();
+            case EVICTED -> evictions.incrementAndGet();
+            default -> {}
+        }
+    }
+
+    private Stripe stripe(ByteBuffer key){
+        return stripes[key.getInt(0) & (stripes.length - 1)];
+    }
+
+    // the share of maxEntries of stripe i, the first maxEntries % stripes stripes hold one entry more
+    private int stripeEntries(int maxEntries, int i){
+        var count = stripes.length;
+        return maxEntries / count + (i < maxEntries % count ? 1 : 0);
+    }
+
+    // SHA-256(I2OSP(length(api_id), 4) || api_id || message), so that no two pairs share a key
+    private static ByteBuffer digest(OctetString api_id, ByteBuffer message){
+        var digest = SHA_256.get();
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, api_id.length));
+        digest.update(api_id.asByteBuffer());
+        digest.update(message.duplicate());
+        return ByteBuffer.wrap(digest.digest());
+    }
+
+    private enum Admission { ADMITTED, REJECTED, EVICTED, PRESENT }
+
+    // Entries in LRU order with their own frequency sketch, all accesses are synchronized on the stripe
+    private static class Stripe {
+        private final LinkedHashMap<ByteBuffer, Scalar> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private int maxEntries;
+        private FrequencySketch sketch;
+
+        private Stripe(int maxEntries){
+            this.maxEntries = maxEntries;
+            this.sketch = new FrequencySketch(maxEntries);
+        }
+
+        private synchronized Scalar get(ByteBuffer key){
+            sketch.increment(key.hashCode());
+            return entries.get(key);
+        }
+
+        private synchronized Admission put(ByteBuffer key, Scalar scalar){
+            if(maxEntries == 0) return Admission.REJECTED;
+            if(entries.containsKey(key)) return Admission.PRESENT;
+            var admission = Admission.ADMITTED;
+            if(entries.size() >= maxEntries){
+                var iterator = entries.keySet().iterator();
+                var victim = iterator.next();
+                if(sketch.frequency(key.hashCode()) <= sketch.frequency(victim.hashCode())) return Admission.REJECTED;
+                iterator.remove();
+                admission = Admission.EVICTED;
+            }
+            entries.put(key, scalar);
+            return admission;
+        }
+
+        // the number of evicted entries
+        private synchronized int setMaxEntries(int maxEntries){
+            this.maxEntries = maxEntries;
+            this.sketch = new FrequencySketch(maxEntries);
+            var evicted = 0;
+            var iterator = entries.keySet().iterator();
+            while (entries.size() > maxEntries){
+                iterator.next();
+                iterator.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        private synchronized int size(){
+            return entries.size();
+        }
+
+        private synchronized void clear(){
+            entries.clear();
+            sketch = new FrequencySketch(maxEntries);
+        }
+    }
+
+    // Count-min sketch with four rows of counters up to 15, all counters are halved after 10 * maxEntries increments
+    private static class FrequencySketch {
+        private static final int ROWS = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        private final byte[][] counters;
+        private final int mask;
+        private final long sampleSize;
+        private long increments;
+
+        private FrequencySketch(int maxEntries){
+            var width = Integer.highestOneBit(Math.max(16, 4 * maxEntries - 1) << 1);
+            this.counters = new byte[ROWS][width];
+            this.mask = width - 1;
+            this.sampleSize = 10L * Math.max(1, maxEntries);
+        }
+
+        private int frequency(int hash){
+            var frequency = MAX_COUNT;
+            for (int row = 0; row < ROWS; row++) {
+                frequency = Math.min(frequency, counters[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private void increment(int hash){
+            for (int row = 0; row < ROWS; row++) {
+                var index = index(hash, row);
+                if(counters[row][index] < MAX_COUNT) counters[row][index]++;
+            }
+            if(++increments >= sampleSize){
+                for (var row: counters) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] >>= 1;
+                    }
+                }
+                increments = 0;
+            }
+        }
+
+        private int index(int hash, int row){
+            var h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.excptions.Abort;
+import ch.openchvote.util.sequence.Vector;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// messages_to_scalars for many or large messages, hashed in chunks on an executor (ForkJoinPool.commonPool() by default).
+public class MessagesToScalars {
+
+    public static final int DEFAULT_PARALLEL_COUNT_THRESHOLD = 256;
+    public static final long DEFAULT_PARALLEL_BYTES_THRESHOLD = 1 << 16;
+    private static volatile int parallelCountThreshold = DEFAULT_PARALLEL_COUNT_THRESHOLD;
+    private static volatile long parallelBytesThreshold = DEFAULT_PARALLEL_BYTES_THRESHOLD;
+    private static volatile Executor executor = ForkJoinPool.commonPool();
+
+    // Number of messages from which on the hashing is split, Integer.MAX_VALUE disables this criterion
+    public static void setParallelCountThreshold(int threshold){
+        if(threshold < 1) throw new IllegalArgumentException("The parallel threshold must be positive");
+        parallelCountThreshold = threshold;
+    }
+
+    public static int getParallelCountThreshold(){
+        return parallelCountThreshold;
+    }
+
+    // Total message length in bytes from which on the hashing is split, Long.MAX_VALUE disables this criterion
+    public static void setParallelBytesThreshold(long threshold){
+        if(threshold < 1) throw new IllegalArgumentException("The parallel threshold must be positive");
+        parallelBytesThreshold = threshold;
+    }
+
+    public static long getParallelBytesThreshold(){
+        return parallelBytesThreshold;
+    }
+
+    public static void setExecutor(Executor executor){
+        if(executor == null) throw new IllegalArgumentException("The executor must not be null");
+        MessagesToScalars.executor = executor;
+    }
+
+    public static Executor getExecutor(){
+        return executor;
+    }
+
+    public static Vector<Scalar> messagesToScalars(Vector<OctetString> messages, OctetString api_id){
+        return messagesToScalars(messages, BbsContext.of(api_id), executor);
+    }
+
+    // executor == null hashes all messages on the calling thread
+    public static Vector<Scalar> messagesToScalars(Vector<OctetString> messages, OctetString api_id, Executor executor){
+        return messagesToScalars(messages, BbsContext.of(api_id), executor);
+    }
+
+    public static Vector<Scalar> messagesToScalars(Vector<OctetString> messages, BbsContext context){
+        return messagesToScalars(messages, context, executor);
+    }
+
+    public static Vector<Scalar> messagesToScalars(Vector<OctetString> messages, BbsContext context, Executor executor){
+        var buffers = new ByteBuffer[messages.getLength()];
+        for (int i = 1; i <= messages.getLength(); i++) {
+            buffers[i-1] = messages.getValue(i).asByteBuffer();
+        }
+        return messagesToScalars(buffers, context, executor);
+    }
+
+    public static Vector<Scalar> messagesToScalars(List<ByteBuffer> messages, OctetString api_id){
+        return messagesToScalars(messages, api_id, executor);
+    }
+
+    // The remaining bytes of every buffer form a message, the positions of the buffers are not changed
+    public static Vector<Scalar> messagesToScalars(List<ByteBuffer> messages, OctetString api_id, Executor executor){
+        return messagesToScalars(messages.toArray(new ByteBuffer[0]), BbsContext.of(api_id), executor);
+    }
+
+    // see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-messages-to-scalars
+    private static Vector<Scalar> messagesToScalars(ByteBuffer[] messages, BbsContext context, Executor executor){
+        if(messages.length > Math.pow(2,64) -1) throw new Abort("To many messages");
+        var api_id = context.getApiId();
+        var expander = context.getMapExpander();
+        var n = messages.length;
+        var scalars = new Scalar[n];
+        var bytes = 0L;
+        for (var message: messages) {
+            bytes += message.remaining();
+        }
+        var chunks = chunks(n, bytes, executor);
+        if(chunks == 1){
+            hash(api_id, expander, messages, scalars, 0, n);
+        } else {
+            // contiguous chunks with about bytes / chunks bytes each
+            var tasks = new CompletableFuture<?>[chunks];
+            var from = 0;
+            var done = 0L;
+            for (int t = 0; t < chunks; t++) {
+                var target = bytes * (t + 1) / chunks;
+                var to = from;
+                while (to < n && (t == chunks - 1 || done < target)) {
+                    done += messages[to].remaining();
+                    to++;
+                }
+                var chunkFrom = from;
+                var chunkTo = to;
+                tasks[t] = CompletableFuture.runAsync(() -> hash(api_id, expander, messages, scalars, chunkFrom, chunkTo), executor);
+                from = to;
+            }
+            CompletableFuture.allOf(tasks).join();
+        }
+        var builder = new Vector.Builder<Scalar>(n);
+        for (var scalar: scalars) {
+            builder.addValue(scalar);
+        }
+        return builder.build();
+    }
+
+    // Number of chunks the n messages with the given total length are split into, 1 below both thresholds or without executor
+    private static int chunks(int n, long bytes, Executor executor){
+        if(executor == null || n < 2 || (n < parallelCountThreshold && bytes < parallelBytesThreshold)) return 1;
+        var parallelism = executor instanceof ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(parallelism, n));
+    }
+
+    private static void hash(OctetString api_id, ExpandMessage expander, ByteBuffer[] messages, Scalar[] scalars, int from, int to){
+        var cache = MessageScalarCache.isEnabled() ? MessageScalarCache.getInstance() : null;
+        for (int i = from; i < to; i++) {
+            if(cache == null){
+                scalars[i] = helper.hash_to_scalar(expander.start().update(messages[i].duplicate()));
+            } else {
+                scalars[i] = cache.computeIfAbsent(api_id, messages[i], message -> helper.hash_to_scalar(expander.start().update(message.duplicate())));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.bls.BLS12;
+import ch.bfh.evg.bls.Params;
+import ch.bfh.evg.element.Fp12Element;
+import ch.bfh.evg.element.Fp2Element;
+import ch.bfh.evg.element.Fp6Element;
+import ch.bfh.evg.element.FpElement;
+import ch.bfh.evg.element.G1Point;
+import ch.bfh.evg.element.G2Point;
+import ch.bfh.evg.field.Fp2;
+import ch.bfh.evg.field.Fp6;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+import static ch.bfh.evg.util.Math.computeNAF;
+
+// Products of BLS12 pairings with the Miller loops run side by side and one final exponentiation, see prepare for fixed G2 points.
+public class MultiPairingBLS12 extends BLS12 {
+
+    private final SortedSet<Integer> positiveNAF;
+    private final SortedSet<Integer> negativeNAF;
+    private final int loopLength;
+
+    public MultiPairingBLS12(Params params){
+        super(params);
+        this.positiveNAF = computeNAF(u, true);
+        this.negativeNAF = computeNAF(u, false);
+        this.loopLength = Math.max(positiveNAF.last(), negativeNAF.last());
+    }
+
+    // Returns e(P_1, Q_1) * ... * e(P_n, Q_n)
+    public Fp12Element pairingProduct(G1Point[] Ps, G2Point[] Qs){
+        if(Ps.length != Qs.length) throw new IllegalArgumentException("The number of G1 and G2 points must be equal");
+        var prepared = new PreparedLines[Qs.length];
+        for (int i = 0; i < Qs.length; i++) {
+            prepared[i] = prepare(Qs[i]);
+        }
+        return pairingProduct(Ps, prepared);
+    }
+
+    public Fp12Element pairingProduct(G1Point[] Ps, PreparedLines[] Qs){
+        var fp12 = getExtensionField();
+        var f = millerLoop(Ps, Qs);
+        if(f == null) return fp12.getOne();
+        return finalExponentiationHardPart(finalExponentiationEasyPart(f));
+    }
+
+    // Returns true if e(P_1, Q_1) * ... * e(P_n, Q_n) == 1
+    public boolean pairingProductIsOne(G1Point[] Ps, G2Point[] Qs){
+        return getExtensionField().isOne(pairingProduct(Ps, Qs));
+    }
+
+    public boolean pairingProductIsOne(G1Point[] Ps, PreparedLines[] Qs){
+        return getExtensionField().isOne(pairingProduct(Ps, Qs));
+    }
+
+    // Runs the G2 side of the Miller loop for Q and records the line coefficients
+    public PreparedLines prepare(G2Point Q){
+        if(G2.isZero(Q)) return new PreparedLines(null);
+        var fp6 = getExtensionField().getSubfield();
+        Q = G2.getPoint(Q.get_X(), Q.get_Y(), Q.get_Z());
+        Q.normalize();
+        var negQ = G2.negate(Q);
+        var xQ = untwist_x(Q.get_X());
+        var yQ = untwist_y(Q.get_Y());
+        var negyQ = fp2.negate(yQ);
+        var T = u.signum() >= 0 ? Q : negQ;
+        var lines = new ArrayList<Line>();
+        for (int i = loopLength - 1; i >= 0; i--) {
+            lines.add(tangent(fp6, T));
+            T = G2.twice(T);
+            if(positiveNAF.contains(i)){
+                lines.add(addition(fp6, T, xQ, yQ));
+                T = G2.add(T, Q);
+            } else if(negativeNAF.contains(i)){
+                lines.add(addition(fp6, T, xQ, negyQ));
+                T = G2.add(T, negQ);
+            }
+        }
+        return new PreparedLines(lines);
+    }
+
+    // Product of the Miller values of all pairs without zero point, null if there is none
+    private Fp12Element millerLoop(G1Point[] Ps, PreparedLines[] Qs){
+        if(Ps.length != Qs.length) throw new IllegalArgumentException("The number of G1 and G2 points must be equal");
+        var fp12 = getExtensionField();
+        var xPs = new ArrayList<FpElement>(Ps.length);
+        var yPs = new ArrayList<FpElement>(Ps.length);
+        var lines = new ArrayList<List<Line>>(Ps.length);
+        for (int i = 0; i < Ps.length; i++) {
+            if(G1.isZero(Ps[i]) || Qs[i].isZero()) continue;
+            var P = G1.getPoint(Ps[i].get_X(), Ps[i].get_Y(), Ps[i].get_Z());
+            P.normalize();
+            xPs.add(P.get_X());
+            yPs.add(P.get_Y());
+            lines.add(Qs[i].lines);
+        }
+        if(lines.isEmpty()) return null;
+        var next = new int[lines.size()];
+        Fp12Element f = null;
+        for (int i = loopLength - 1; i >= 0; i--) {
+            var steps = positiveNAF.contains(i) || negativeNAF.contains(i) ? 2 : 1;
+            Fp12Element l = null;
+            for (int j = 0; j < lines.size(); j++) {
+                for (int s = 0; s < steps; s++) {
+                    var lj = lines.get(j).get(next[j]++).evaluate(fp2, xPs.get(j), yPs.get(j));
+                    l = l == null ? lj : fp12.multiply(l, lj);
+                }
+            }
+            f = f == null ? l : fp12.multiply(fp12.square(f), l);
+        }
+        return fp12.isZero(f) ? fp12.getOne() : f;
+    }
+
+    // Tangent at T = (X, Y, Z): c0 = beta * (a * X' - b * Y'), c1 = -(a * Z) * xP, c2 = (b * Z) * yP
+    // with a = 3 * beta * X'^2, b = 2 * Y' * Z and X', Y' the untwisted coordinates
+    private Line tangent(Fp6 fp6, G2Point T){
+        var X = untwist_x(T.get_X());
+        var Y = untwist_y(T.get_Y());
+        var Z = T.get_Z();
+        var a = fp2.trice(fp6.multiplyBeta(fp2.square(X)));
+        var b = fp2.twice(fp2.multiply(Y, Z));
+        var c0 = fp6.multiplyBeta(fp2.subtract(fp2.multiply(a, X), fp2.multiply(b, Y)));
+        return new Line(LineType.TANGENT, c0, fp2.negate(fp2.multiply(a, Z)), fp2.multiply(b, Z));
+    }
+
+    // Line through T = (X, Y, Z) and (xQ, yQ), vertical if T is the negation of that point
+    private Line addition(Fp6 fp6, G2Point T, Fp2Element xQ, Fp2Element yQ){
+        var X = untwist_x(T.get_X());
+        var Y = untwist_y(T.get_Y());
+        var Z = T.get_Z();
+        var xQZ = fp2.multiply(xQ, Z);
+        var yQZ = fp2.multiply(yQ, Z);
+        if(X.equals(xQZ) && Y.equals(fp2.negate(yQZ))) return new Line(LineType.VERTICAL, X, Z, null);
+        var t = fp2.subtract(yQZ, Y);
+        var s = fp2.subtract(xQZ, X);
+        var c0 = fp6.multiplyBeta(fp2.subtract(fp2.multiply(t, X), fp2.multiply(s, Y)));
+        return new Line(LineType.ADDITION, c0, fp2.negate(fp2.multiply(t, Z)), fp2.multiply(s, Z));
+    }
+
+    // The Miller loop lines of a G2 point, independent of the G1 point they are evaluated at
+    public static final class PreparedLines {
+        private final List<Line> lines;
+
+        private PreparedLines(List<Line> lines){
+            this.lines = lines;
+        }
+
+        public boolean isZero(){
+            return lines == null;
+        }
+    }
+
+    private enum LineType { TANGENT, ADDITION, VERTICAL }
+
+    private record Line(LineType type, Fp2Element c0, Fp2Element cx, Fp2Element cy) {
+
+        private Fp12Element evaluate(Fp2 fp2, FpElement xP, FpElement yP){
+            var zero = fp2.getZero();
+            return switch (type){
+                case TANGENT -> new Fp12Element(new Fp6Element(c0, fp2.multiply(cx, xP), zero), new Fp6Element(zero, fp2.multiply(cy, yP), zero));
+                case ADDITION -> new Fp12Element(new Fp6Element(zero, zero, fp2.multiply(cy, yP)), new Fp6Element(c0, fp2.multiply(cx, xP), zero));
+                case VERTICAL -> new Fp12Element(new Fp6Element(zero, zero, fp2.subtract(fp2.multiply(cx, xP), c0)));
+            };
+        }
+    }
+}
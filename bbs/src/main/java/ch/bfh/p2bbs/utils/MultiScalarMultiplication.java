@@ -0,0 +1,241 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.ECPoint;
+import ch.bfh.evg.element.FpElement;
+import ch.bfh.evg.field.Fp;
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.openchvote.util.sequence.Vector;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+
+// Multi-scalar multiplication sum(k_i * P_i) in G1 with Straus or Pippenger on GLV-split scalars, on the calling thread unless an executor is set.
+public class MultiScalarMultiplication {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 128;
+    private static final int MAX_WINDOW_SIZE = 16;
+    private static final int MAX_STRAUS_WINDOW_SIZE = 6;
+    private static final int MIN_CHUNK_SIZE = 32;
+    private static volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private static volatile Executor executor = null;
+
+    // Number of points from which on the computation is split, Integer.MAX_VALUE keeps it single-threaded
+    public static void setParallelThreshold(int threshold){
+        if(threshold < 1) throw new IllegalArgumentException("The parallel threshold must be positive");
+        parallelThreshold = threshold;
+    }
+
+    public static int getParallelThreshold(){
+        return parallelThreshold;
+    }
+
+    // Executor of the calls without one, null (the default) keeps them on the calling thread
+    public static void setExecutor(Executor executor){
+        MultiScalarMultiplication.executor = executor;
+    }
+
+    public static Executor getExecutor(){
+        return executor;
+    }
+
+    // Same as the naive loop over scalars.getLength() terms
+    public static G1Point sumOfScalarMultiply(Vector<G1Point> points, Vector<Scalar> scalars){
+        return sumOfScalarMultiply(points, scalars, executor);
+    }
+
+    // Large inputs are split over the given executor, executor == null keeps the computation on the calling thread
+    public static G1Point sumOfScalarMultiply(Vector<G1Point> points, Vector<Scalar> scalars, Executor executor){
+        var n = scalars.getLength();
+        var pointArray = new G1Point[n];
+        var scalarArray = new Scalar[n];
+        for (int i = 1; i <= n; i++) {
+            pointArray[i-1] = points.getValue(i);
+            scalarArray[i-1] = scalars.getValue(i);
+        }
+        return sumOfScalarMultiply(pointArray, scalarArray, executor);
+    }
+
+    // Joint evaluation of a fixed number of terms, e.g. points[0]*scalars[0] + points[1]*scalars[1]
+    public static G1Point sumOfScalarMultiply(G1Point[] points, Scalar[] scalars){
+        return sumOfScalarMultiply(points, scalars, executor);
+    }
+
+    public static G1Point sumOfScalarMultiply(G1Point[] points, Scalar[] scalars, Executor executor){
+        if(points.length != scalars.length) throw new IllegalArgumentException("The number of points and scalars must be equal");
+        var tables = new ArrayList<FixedBaseTable<ch.bfh.evg.element.G1Point>>();
+        var fixedKs = new ArrayList<BigInteger>();
+        var bases = new ArrayList<ch.bfh.evg.element.G1Point>();
+        var ks = new ArrayList<BigInteger>();
+        var bits = 0;
+        for (int i = 0; i < scalars.length; i++) {
+            if(points[i].isFixedBase()){
+                tables.add(points[i].getFixedBaseTable());
+                fixedKs.add(scalars[i].toBigInteger());
+                continue;
+            }
+            var point = points[i].getPoint();
+            var k = GlvMultiplication.decompose(scalars[i].toBigInteger());
+            bases.add(point);
+            ks.add(k[0]);
+            bases.add(GlvMultiplication.phi(point));
+            ks.add(k[1]);
+            bits = Math.max(bits, Math.max(k[0].bitLength(), k[1].bitLength()));
+        }
+        var baseArray = bases.toArray(new ch.bfh.evg.element.G1Point[0]);
+        var kArray = ks.toArray(new BigInteger[0]);
+        var fixedKArray = fixedKs.toArray(new BigInteger[0]);
+        var chunks = chunks(scalars.length, executor);
+        ch.bfh.evg.element.G1Point result;
+        if(chunks == 1){
+            result = G1.add(FixedBaseTable.sumOfMultiply(G1, tables, fixedKArray), evaluate(baseArray, kArray, 0, baseArray.length, bits));
+        } else {
+            // every chunk gets a share of the fixed base terms and a share of the variable base terms
+            var fixedChunkSize = (tables.size() + chunks - 1) / chunks;
+            var chunkSize = (baseArray.length + chunks - 1) / chunks;
+            var chunkBits = bits;
+            var partialSums = new ArrayList<CompletableFuture<ch.bfh.evg.element.G1Point>>(chunks);
+            for (int t = 0; t < chunks; t++) {
+                var fixedFrom = Math.min(tables.size(), t * fixedChunkSize);
+                var fixedTo = Math.min(tables.size(), fixedFrom + fixedChunkSize);
+                var from = Math.min(baseArray.length, t * chunkSize);
+                var to = Math.min(baseArray.length, from + chunkSize);
+                partialSums.add(CompletableFuture.supplyAsync(() -> G1.add(
+                        FixedBaseTable.sumOfMultiply(G1, tables.subList(fixedFrom, fixedTo), Arrays.copyOfRange(fixedKArray, fixedFrom, fixedTo)),
+                        evaluate(baseArray, kArray, from, to, chunkBits)), executor));
+            }
+            result = partialSums.get(0).join();
+            for (int t = 1; t < chunks; t++) {
+                result = G1.add(result, partialSums.get(t).join());
+            }
+        }
+        return new G1Point((ECPoint<FpElement, Fp>) result, (Fp) G1.getField());
+    }
+
+    // Number of chunks the n points are split into, 1 below the threshold or without executor
+    private static int chunks(int n, Executor executor){
+        if(executor == null || n < parallelThreshold) return 1;
+        var parallelism = executor instanceof ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(parallelism, n / MIN_CHUNK_SIZE));
+    }
+
+    // The loop G1Point.sumOfScalarMultiply used before, kept as reference
+    public static G1Point naive(Vector<G1Point> points, Vector<Scalar> scalars){
+        G1Point res = G1Point.ZERO;
+        for (int i = 1; i <= scalars.getLength(); i++) {
+            G1Point scalarMultiplyRes = points.getValue(i).times(scalars.getValue(i));
+            res = res.add(scalarMultiplyRes);
+        }
+        return res;
+    }
+
+    // Returns the Pippenger window size with the least estimated number of group operations, or 0 if Straus is cheaper.
+    // Pippenger needs ceil(bits/c) * (n + 2^(c+1)) additions plus bits doublings.
+    static int windowSize(int n, int bits){
+        if(n == 0 || bits == 0) return 0;
+        var best = 0;
+        var bestCost = strausCost(n, bits, strausWindowSize(n, bits));
+        for (int c = 1; c <= MAX_WINDOW_SIZE; c++) {
+            var windows = (bits + c - 1) / c;
+            var cost = windows * (n + (2L << c)) + bits;
+            if(cost < bestCost){
+                best = c;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    // Straus needs n * (2^w - 2) additions for the tables, ceil(bits/w) * n additions and bits doublings
+    static int strausWindowSize(int n, int bits){
+        var best = 1;
+        for (int w = 2; w <= MAX_STRAUS_WINDOW_SIZE; w++) {
+            if(strausCost(n, bits, w) < strausCost(n, bits, best)) best = w;
+        }
+        return best;
+    }
+
+    private static long strausCost(int n, int bits, int w){
+        return n * ((1L << w) - 2 + (bits + w - 1) / w) + bits;
+    }
+
+    private static ch.bfh.evg.element.G1Point evaluate(ch.bfh.evg.element.G1Point[] bases, BigInteger[] ks, int from, int to, int bits){
+        var c = windowSize(to - from, bits);
+        if(c == 0) return straus(bases, ks, from, to, bits, strausWindowSize(to - from, bits));
+        return pippenger(bases, ks, from, to, bits, c);
+    }
+
+    // Sum of the terms from (inclusive) to to (exclusive) with interleaved windows of w bits
+    private static ch.bfh.evg.element.G1Point straus(ch.bfh.evg.element.G1Point[] bases, BigInteger[] ks, int from, int to, int bits, int w){
+        if(bits == 0) return G1.getZero();
+        var tables = new ch.bfh.evg.element.G1Point[to - from][];
+        for (int i = from; i < to; i++) {
+            if(ks[i].signum() == 0) continue;
+            var table = new ch.bfh.evg.element.G1Point[(1 << w) - 1];
+            table[0] = bases[i];
+            for (int d = 1; d < table.length; d++) {
+                table[d] = d == 1 ? G1.twice(bases[i]) : G1.add(table[d-1], bases[i]);
+            }
+            tables[i-from] = table;
+        }
+        var windows = (bits + w - 1) / w;
+        ch.bfh.evg.element.G1Point result = null;
+        for (int win = windows - 1; win >= 0; win--) {
+            if(result != null){
+                for (int j = 0; j < w; j++) {
+                    result = G1.twice(result);
+                }
+            }
+            for (int i = from; i < to; i++) {
+                if(tables[i-from] == null) continue;
+                var digit = digit(ks[i], win * w, w);
+                if(digit == 0) continue;
+                var multiple = tables[i-from][digit-1];
+                result = result == null ? multiple : G1.add(result, multiple);
+            }
+        }
+        return result == null ? G1.getZero() : result;
+    }
+
+    // Sum of the terms from (inclusive) to to (exclusive) with buckets for windows of c bits
+    private static ch.bfh.evg.element.G1Point pippenger(ch.bfh.evg.element.G1Point[] bases, BigInteger[] ks, int from, int to, int bits, int c){
+        var windows = (bits + c - 1) / c;
+        var buckets = new ch.bfh.evg.element.G1Point[(1 << c) - 1];
+        ch.bfh.evg.element.G1Point result = null;
+        for (int w = windows - 1; w >= 0; w--) {
+            if(result != null){
+                for (int j = 0; j < c; j++) {
+                    result = G1.twice(result);
+                }
+            }
+            Arrays.fill(buckets, null);
+            for (int i = from; i < to; i++) {
+                var digit = digit(ks[i], w * c, c);
+                if(digit == 0) continue;
+                buckets[digit-1] = buckets[digit-1] == null ? bases[i] : G1.add(buckets[digit-1], bases[i]);
+            }
+            ch.bfh.evg.element.G1Point running = null;
+            ch.bfh.evg.element.G1Point windowSum = null;
+            for (int j = buckets.length - 1; j >= 0; j--) {
+                if(buckets[j] != null) running = running == null ? buckets[j] : G1.add(running, buckets[j]);
+                if(running != null) windowSum = windowSum == null ? running : G1.add(windowSum, running);
+            }
+            if(windowSum != null) result = result == null ? windowSum : G1.add(result, windowSum);
+        }
+        return result == null ? G1.getZero() : result;
+    }
+
+    private static int digit(BigInteger k, int offset, int c){
+        var digit = 0;
+        for (int b = 0; b < c; b++) {
+            if(k.testBit(offset + b)) digit |= 1 << b;
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,288 @@
+package ch.bfh.p2bbs.utils;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+// Montgomery arithmetic modulo r on four 64-bit limbs that writes into output arrays, Scalar is the immutable facade on top of it.
+public final class ScalarField {
+
+    public static final int LIMBS = 4;
+    public static final int BYTES = 32;
+
+    // r = 0x73eda753299d7d483339d80809a1d80553bda402fffe5bfeffffffff00000001
+    private static final long R0 = 0xffffffff00000001L, R1 = 0x53bda402fffe5bfeL, R2 = 0x3339d80809a1d805L, R3 = 0x73eda753299d7d48L;
+    private static final long[] MODULUS = {R0, R1, R2, R3};
+    // -r^-1 mod 2^64
+    private static final long N0 = 0xfffffffeffffffffL;
+    // 2^256 mod r (one), 2^512 mod r and 2^768 mod r, used to convert into Montgomery form
+    private static final long[] ONE = {0x00000001fffffffeL, 0x5884b7fa00034802L, 0x998c4fefecbc4ff5L, 0x1824b159acc5056fL};
+    private static final long[] MONTGOMERY_R2 = {0xc999e990f3f29c6dL, 0x2b6cedcb87925c23L, 0x05d314967254398fL, 0x0748d9d99f59ff11L};
+    private static final long[] MONTGOMERY_R3 = {0xc62c1807439b73afL, 0x1b3e0d188cf06990L, 0x73d13c71c7b5f418L, 0x6e2a5bb9c8db33e9L};
+    private static final long[] PLAIN_ONE = {1, 0, 0, 0};
+    // r - 2, the exponent of the inversion by Fermat's little theorem
+    private static final long[] INVERSE_EXPONENT = {0xfffffffeffffffffL, 0x53bda402fffe5bfeL, 0x3339d80809a1d805L, 0x73eda753299d7d48L};
+
+    private ScalarField(){
+    }
+
+    public static void one(long[] out){
+        System.arraycopy(ONE, 0, out, 0, LIMBS);
+    }
+
+    public static boolean isZero(long[] a){
+        return (a[0] | a[1] | a[2] | a[3]) == 0;
+    }
+
+    public static boolean equals(long[] a, long[] b){
+        return a[0] == b[0] && a[1] == b[1] && a[2] == b[2] && a[3] == b[3];
+    }
+
+    // out = a + b mod r
+    public static void add(long[] a, long[] b, long[] out){
+        long s0 = a[0] + b[0];
+        long c = Long.compareUnsigned(s0, a[0]) < 0 ? 1 : 0;
+        long s1 = a[1] + b[1] + c;
+        c = Long.compareUnsigned(s1, a[1]) < 0 || (c == 1 && s1 == a[1]) ? 1 : 0;
+        long s2 = a[2] + b[2] + c;
+        c = Long.compareUnsigned(s2, a[2]) < 0 || (c == 1 && s2 == a[2]) ? 1 : 0;
+        long s3 = a[3] + b[3] + c;
+        // a + b < 2r < 2^256, there is no carry out of the top limb
+        reduce(s0, s1, s2, s3, out);
+    }
+
+    // out = a - b mod r
+    public static void subtract(long[] a, long[] b, long[] out){
+        long d0 = a[0] - b[0];
+        long borrow = Long.compareUnsigned(a[0], b[0]) < 0 ? 1 : 0;
+        long d1 = a[1] - b[1] - borrow;
+        borrow = Long.compareUnsigned(a[1], b[1]) < 0 || (borrow == 1 && a[1] == b[1]) ? 1 : 0;
+        long d2 = a[2] - b[2] - borrow;
+        borrow = Long.compareUnsigned(a[2], b[2]) < 0 || (borrow == 1 && a[2] == b[2]) ? 1 : 0;
+        long d3 = a[3] - b[3] - borrow;
+        borrow = Long.compareUnsigned(a[3], b[3]) < 0 || (borrow == 1 && a[3] == b[3]) ? 1 : 0;
+        if(borrow == 0){
+            out[0] = d0;
+            out[1] = d1;
+            out[2] = d2;
+            out[3] = d3;
+            return;
+        }
+        // add r back
+        long s0 = d0 + R0;
+        long c = Long.compareUnsigned(s0, d0) < 0 ? 1 : 0;
+        long s1 = d1 + R1 + c;
+        c = Long.compareUnsigned(s1, d1) < 0 || (c == 1 && s1 == d1) ? 1 : 0;
+        long s2 = d2 + R2 + c;
+        c = Long.compareUnsigned(s2, d2) < 0 || (c == 1 && s2 == d2) ? 1 : 0;
+        out[0] = s0;
+        out[1] = s1;
+        out[2] = s2;
+        out[3] = d3 + R3 + c;
+    }
+
+    // out = -a mod r
+    public static void negate(long[] a, long[] out){
+        if(isZero(a)){
+            out[0] = out[1] = out[2] = out[3] = 0;
+            return;
+        }
+        long d0 = R0 - a[0];
+        long borrow = Long.compareUnsigned(R0, a[0]) < 0 ? 1 : 0;
+        long d1 = R1 - a[1] - borrow;
+        borrow = Long.compareUnsigned(R1, a[1]) < 0 || (borrow == 1 && R1 == a[1]) ? 1 : 0;
+        long d2 = R2 - a[2] - borrow;
+        borrow = Long.compareUnsigned(R2, a[2]) < 0 || (borrow == 1 && R2 == a[2]) ? 1 : 0;
+        out[0] = d0;
+        out[1] = d1;
+        out[2] = d2;
+        out[3] = R3 - a[3] - borrow;
+    }
+
+    // out = a * b * 2^-256 mod r, i.e. the product of two elements in Montgomery form (CIOS).
+    // r < 2^255, so the intermediate value t < 2r fits into four limbs plus one carry limb.
+    public static void multiply(long[] a, long[] b, long[] out){
+        var t = new long[LIMBS + 1];
+        for (int i = 0; i < LIMBS; i++) {
+            // t = t + a_i * b
+            long carry = 0;
+            for (int j = 0; j < LIMBS; j++) {
+                long lo = a[i] * b[j];
+                long hi = Math.unsignedMultiplyHigh(a[i], b[j]);
+                lo += t[j];
+                if(Long.compareUnsigned(lo, t[j]) < 0) hi++;
+                lo += carry;
+                if(Long.compareUnsigned(lo, carry) < 0) hi++;
+                t[j] = lo;
+                carry = hi;
+            }
+            t[LIMBS] = carry;
+            // t = (t + m * r) / 2^64 with m such that the lowest limb becomes 0
+            long m = t[0] * N0;
+            long lo = m * MODULUS[0];
+            carry = Math.unsignedMultiplyHigh(m, MODULUS[0]);
+            if(Long.compareUnsigned(lo + t[0], lo) < 0) carry++;
+            for (int j = 1; j < LIMBS; j++) {
+                lo = m * MODULUS[j];
+                long hi = Math.unsignedMultiplyHigh(m, MODULUS[j]);
+                lo += t[j];
+                if(Long.compareUnsigned(lo, t[j]) < 0) hi++;
+                lo += carry;
+                if(Long.compareUnsigned(lo, carry) < 0) hi++;
+                t[j-1] = lo;
+                carry = hi;
+            }
+            t[LIMBS-1] = t[LIMBS] + carry;
+        }
+        reduce(t[0], t[1], t[2], t[3], out);
+    }
+
+    public static void square(long[] a, long[] out){
+        multiply(a, a, out);
+    }
+
+    // out = a^-1 mod r = a^(r-2), zero for zero
+    public static void inverse(long[] a, long[] out){
+        power(a, INVERSE_EXPONENT, out);
+    }
+
+    // out[i] = a[i]^-1 for all i with a single inversion (Montgomery's trick): the prefix products a[0] * ... * a[i]
+    // are inverted once and the single inverses are peeled off backwards. The elements must not be zero.
+    public static void batchInverse(long[][] a, long[][] out){
+        if(a.length == 0) return;
+        var prefix = new long[a.length][LIMBS];
+        System.arraycopy(a[0], 0, prefix[0], 0, LIMBS);
+        for (int i = 1; i < a.length; i++) {
+            multiply(prefix[i-1], a[i], prefix[i]);
+        }
+        var inverse = new long[LIMBS];
+        inverse(prefix[a.length-1], inverse);
+        var single = new long[LIMBS];
+        for (int i = a.length - 1; i > 0; i--) {
+            // inverse = (a[0] * ... * a[i])^-1, so a[i]^-1 = inverse * (a[0] * ... * a[i-1])
+            multiply(inverse, prefix[i-1], single);
+            multiply(inverse, a[i], inverse);
+            System.arraycopy(single, 0, out[i], 0, LIMBS);
+        }
+        System.arraycopy(inverse, 0, out[0], 0, LIMBS);
+    }
+
+    // out = a^e with the exponent e given as four plain (not Montgomery) limbs
+    public static void power(long[] a, long[] e, long[] out){
+        var base = a == out ? a.clone() : a;
+        one(out);
+        for (int i = LIMBS * Long.SIZE - 1; i >= 0; i--) {
+            square(out, out);
+            if(((e[i / Long.SIZE] >>> (i % Long.SIZE)) & 1) == 1) multiply(out, base, out);
+        }
+    }
+
+    // Montgomery form of a value below 2^512 given as big-endian bytes, reduced modulo r
+    public static void fromBytes(byte[] bytes, int offset, int length, long[] out){
+        if(length > 2 * BYTES) throw new IllegalArgumentException("At most " + 2 * BYTES + " bytes can be converted");
+        // value = high * 2^256 + low, so value * 2^256 = low * 2^512 * 2^-256 + high * 2^768 * 2^-256
+        var lowLength = Math.min(length, BYTES);
+        var low = new long[LIMBS];
+        var high = new long[LIMBS];
+        readLimbs(bytes, offset + length - lowLength, lowLength, low);
+        readLimbs(bytes, offset, length - lowLength, high);
+        fromHalves(low, high, out);
+    }
+
+    // as fromBytes, with the length bytes at index of the buffer, read with absolute gets
+    public static void fromBytes(ByteBuffer bytes, int index, int length, long[] out){
+        if(length > 2 * BYTES) throw new IllegalArgumentException("At most " + 2 * BYTES + " bytes can be converted");
+        var lowLength = Math.min(length, BYTES);
+        var low = new long[LIMBS];
+        var high = new long[LIMBS];
+        readLimbs(bytes, index + length - lowLength, lowLength, low);
+        readLimbs(bytes, index, length - lowLength, high);
+        fromHalves(low, high, out);
+    }
+
+    // Montgomery form of the 32 bytes big-endian at index of the buffer, false if they encode a value >= r
+    public static boolean fromCanonicalBytes(ByteBuffer bytes, int index, long[] out){
+        var plain = new long[LIMBS];
+        readLimbs(bytes, index, BYTES, plain);
+        reduce(plain[0], plain[1], plain[2], plain[3], out);
+        if(!equals(plain, out)) return false;
+        multiply(plain, MONTGOMERY_R2, out);
+        return true;
+    }
+
+    // out = (high * 2^256 + low) * 2^256 mod r for the plain halves high and low
+    private static void fromHalves(long[] low, long[] high, long[] out){
+        // 2^256 < 3r, at most two subtractions make the halves smaller than r
+        reduce(low[0], low[1], low[2], low[3], low);
+        reduce(low[0], low[1], low[2], low[3], low);
+        reduce(high[0], high[1], high[2], high[3], high);
+        reduce(high[0], high[1], high[2], high[3], high);
+        multiply(low, MONTGOMERY_R2, low);
+        multiply(high, MONTGOMERY_R3, high);
+        add(low, high, out);
+    }
+
+    // 32 bytes big-endian of the element a in Montgomery form
+    public static void toBytes(long[] a, byte[] out, int offset){
+        var plain = new long[LIMBS];
+        fromMontgomery(a, plain);
+        for (int i = 0; i < LIMBS; i++) {
+            var limb = plain[LIMBS - 1 - i];
+            for (int b = 0; b < Long.BYTES; b++) {
+                out[offset + i * Long.BYTES + b] = (byte) (limb >>> (Long.SIZE - Byte.SIZE * (b + 1)));
+            }
+        }
+    }
+
+    public static void fromBigInteger(BigInteger value, long[] out){
+        var reduced = value.mod(Definitions.r).toByteArray();
+        fromBytes(reduced, 0, reduced.length, out);
+    }
+
+    public static BigInteger toBigInteger(long[] a){
+        var bytes = new byte[BYTES];
+        toBytes(a, bytes, 0);
+        return new BigInteger(1, bytes);
+    }
+
+    // plain limbs of the element a in Montgomery form, i.e. a * 2^-256
+    public static void fromMontgomery(long[] a, long[] out){
+        multiply(a, PLAIN_ONE, out);
+    }
+
+    private static void readLimbs(byte[] bytes, int offset, int length, long[] out){
+        for (int i = 0; i < length; i++) {
+            var bit = (length - 1 - i) * Byte.SIZE;
+            out[bit / Long.SIZE] |= (bytes[offset + i] & 0xffL) << (bit % Long.SIZE);
+        }
+    }
+
+    private static void readLimbs(ByteBuffer bytes, int index, int length, long[] out){
+        for (int i = 0; i < length; i++) {
+            var bit = (length - 1 - i) * Byte.SIZE;
+            out[bit / Long.SIZE] |= (bytes.get(index + i) & 0xffL) << (bit % Long.SIZE);
+        }
+    }
+
+    // out = t - r if t >= r, else t
+    private static void reduce(long t0, long t1, long t2, long t3, long[] out){
+        long d0 = t0 - R0;
+        long borrow = Long.compareUnsigned(t0, R0) < 0 ? 1 : 0;
+        long d1 = t1 - R1 - borrow;
+        borrow = Long.compareUnsigned(t1, R1) < 0 || (borrow == 1 && t1 == R1) ? 1 : 0;
+        long d2 = t2 - R2 - borrow;
+        borrow = Long.compareUnsigned(t2, R2) < 0 || (borrow == 1 && t2 == R2) ? 1 : 0;
+        long d3 = t3 - R3 - borrow;
+        borrow = Long.compareUnsigned(t3, R3) < 0 || (borrow == 1 && t3 == R3) ? 1 : 0;
+        if(borrow == 1){
+            out[0] = t0;
+            out[1] = t1;
+            out[2] = t2;
+            out[3] = t3;
+        } else {
+            out[0] = d0;
+            out[1] = d1;
+            out[2] = d2;
+            out[3] = d3;
+        }
+    }
+}
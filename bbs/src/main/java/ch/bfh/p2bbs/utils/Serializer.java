@@ -0,0 +1,116 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.G2Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.excptions.Abort;
+
+import java.util.Arrays;
+
+// see: https://datatracker.ietf.org/doc/html/draft-irtf-cfrg-bbs-signatures-05#name-serialize
+// serialize in a single pass, into one byte array or straight into a hash stream.
+public final class Serializer {
+
+    public static final int POINT_G1_LENGTH = 48;
+    public static final int POINT_G2_LENGTH = 96;
+    public static final int SCALAR_LENGTH = ScalarField.BYTES;
+    public static final int INTEGER_LENGTH = 8;
+
+    private final ExpandMessage.Stream stream;
+    private byte[] octets;
+    private int length;
+
+    // a serializer into an array of the given initial capacity
+    public Serializer(int capacity){
+        this.stream = null;
+        this.octets = new byte[capacity];
+    }
+
+    // a serializer that updates the stream, e.g. of hash_to_scalar, instead of collecting the octets
+    public Serializer(ExpandMessage.Stream stream){
+        this.stream = stream;
+        // scratch space for scalars and integers
+        this.octets = new byte[SCALAR_LENGTH];
+    }
+
+    // the length of the serialization of the given numbers of elements
+    public static int size(int g1Points, int g2Points, int scalars, int integers){
+        return g1Points * POINT_G1_LENGTH + g2Points * POINT_G2_LENGTH + scalars * SCALAR_LENGTH + integers * INTEGER_LENGTH;
+    }
+
+    public Serializer add(G1Point point){
+        return add(point.serialize());
+    }
+
+    public Serializer add(G2Point point){
+        return add(point.serialize());
+    }
+
+    public Serializer add(Scalar scalar){
+        if(stream != null){
+            scalar.toBytes(octets, 0);
+            stream.update(octets, 0, SCALAR_LENGTH);
+            return this;
+        }
+        ensureCapacity(SCALAR_LENGTH);
+        scalar.toBytes(octets, length);
+        length += SCALAR_LENGTH;
+        return this;
+    }
+
+    // I2OSP(integer, 8), the integers of serialize are non-negative
+    public Serializer add(long integer){
+        if(integer < 0) throw new Abort("Negative integers can not be serialized");
+        var offset = 0;
+        if(stream == null){
+            ensureCapacity(INTEGER_LENGTH);
+            offset = length;
+        }
+        for (int i = 0; i < INTEGER_LENGTH; i++) {
+            octets[offset + i] = (byte) (integer >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+        if(stream != null) stream.update(octets, 0, INTEGER_LENGTH);
+        else length += INTEGER_LENGTH;
+        return this;
+    }
+
+    // the octets themselves, without length prefix
+    public Serializer add(OctetString octetString){
+        if(stream != null){
+            stream.update(octetString.asByteBuffer());
+            return this;
+        }
+        ensureCapacity(octetString.length);
+        octetString.copyTo(octets, length);
+        length += octetString.length;
+        return this;
+    }
+
+    private Serializer add(byte[] bytes){
+        if(stream != null){
+            stream.update(bytes);
+            return this;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, octets, length, bytes.length);
+        length += bytes.length;
+        return this;
+    }
+
+    public int getLength(){
+        return length;
+    }
+
+    // the octets appended so far, as view of the array of the serializer
+    public OctetString toOctetString(){
+        if(stream != null) throw new IllegalStateException("The octets were written into a stream");
+        if(length == octets.length) return new OctetString(octets);
+        return OctetString.wrap(octets, 0, length);
+    }
+
+    private void ensureCapacity(int additional){
+        if(length + additional <= octets.length) return;
+        octets = Arrays.copyOf(octets, Math.max(length + additional, 2 * octets.length));
+    }
+}
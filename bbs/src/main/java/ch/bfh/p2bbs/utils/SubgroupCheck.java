@@ -0,0 +1,79 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.Fp2Element;
+import ch.bfh.evg.element.G1Point;
+import ch.bfh.evg.element.G2Point;
+import ch.bfh.evg.field.Fp;
+import ch.bfh.evg.field.Fp2;
+import ch.bfh.evg.group.Group;
+
+import java.math.BigInteger;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+import static ch.bfh.p2bbs.utils.Definitions.G2;
+
+// see: https://eprint.iacr.org/2021/1130 (Scott, A note on group membership tests for G1, G2 and GT on BLS pairing-friendly curves)
+// Membership in G1 and G2 of points on the curve, tested with the endomorphisms phi and psi instead of the multiplication by r.
+public final class SubgroupCheck {
+
+    // |z| of BLS12-381
+    private static final long Z = 0xd201000000010000L;
+    private static final Fp2 FIELD2 = (Fp2) G2.getField();
+    private static final BigInteger p = ((Fp) G1.getField()).getCharacteristic();
+    private static final Fp2Element XI = FIELD2.getElement(BigInteger.ONE, BigInteger.ONE);
+    // psi(x, y) = (conj(x) * PSI_X, conj(y) * PSI_Y) with PSI_X = 1 / (1 + i)^((p - 1) / 3) and PSI_Y = 1 / (1 + i)^((p - 1) / 2)
+    private static final Fp2Element PSI_X = FIELD2.invert(power(XI, p.subtract(BigInteger.ONE).divide(BigInteger.valueOf(3))));
+    private static final Fp2Element PSI_Y = FIELD2.invert(power(XI, p.subtract(BigInteger.ONE).shiftRight(1)));
+
+    private SubgroupCheck(){
+    }
+
+    // true for points of G1, including the identity
+    public static boolean isInG1(G1Point point){
+        return isOnG1Subgroup(point);
+    }
+
+    // true for points of G2, including the identity
+    public static boolean isInG2(G2Point point){
+        return isOnG2Subgroup(point);
+    }
+
+    // phi^2(P) + z^2 * P == 0
+    static boolean isOnG1Subgroup(G1Point point){
+        if(G1.isZero(point)) return true;
+        var phi2 = GlvMultiplication.phi(GlvMultiplication.phi(point));
+        return G1.isZero(G1.add(phi2, timesZ(G1, timesZ(G1, point))));
+    }
+
+    // psi(Q) - z * Q == psi(Q) + |z| * Q == 0
+    static boolean isOnG2Subgroup(G2Point point){
+        if(G2.isZero(point)) return true;
+        return G2.isZero(G2.add(psi(point), timesZ(G2, point)));
+    }
+
+    // psi on projective coordinates, the Frobenius map conj commutes with the division by Z
+    static G2Point psi(G2Point point){
+        var x = FIELD2.multiply(FIELD2.frobeniusMap(point.get_X(), 1), PSI_X);
+        var y = FIELD2.multiply(FIELD2.frobeniusMap(point.get_Y(), 1), PSI_Y);
+        return G2.getPoint(x, y, FIELD2.frobeniusMap(point.get_Z(), 1));
+    }
+
+    // |z| * point by double-and-add over the 6 set bits of |z|
+    private static <E> E timesZ(Group.Additive<E> group, E point){
+        var result = point;
+        for (int i = Long.SIZE - 2; i >= 0; i--) {
+            result = group.twice(result);
+            if(((Z >>> i) & 1) == 1) result = group.add(result, point);
+        }
+        return result;
+    }
+
+    private static Fp2Element power(Fp2Element base, BigInteger exponent){
+        var result = FIELD2.getOne();
+        for (int i = exponent.bitLength() - 1; i >= 0; i--) {
+            result = FIELD2.square(result);
+            if(exponent.testBit(i)) result = FIELD2.multiply(result, base);
+        }
+        return result;
+    }
+}
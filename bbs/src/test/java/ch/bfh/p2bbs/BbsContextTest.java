@@ -0,0 +1,110 @@
+package ch.bfh.p2bbs;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.signature.Sign;
+import ch.bfh.p2bbs.utils.GeneratorCache;
+import ch.bfh.p2bbs.utils.helper;
+import ch.openchvote.util.sequence.Vector;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BbsContextTest {
+    private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/signature/";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/signature/";
+
+    @Test
+    public void contextsOfSuitesAndApiIds(){
+        for (var ciphersuite: Ciphersuite.values()) {
+            var context = BbsContext.of(ciphersuite);
+            var api_id = ciphersuite.getApiId();
+            assertSame(context, BbsContext.of(ciphersuite, new OctetString(api_id.toBytes().clone())));
+            assertSame(ciphersuite, context.getCiphersuite());
+            assertTrue(api_id.concat("H2S_", StandardCharsets.US_ASCII).equals(context.getHashToScalarDst()));
+            assertTrue(api_id.concat("MAP_MSG_TO_SCALAR_AS_HASH_", StandardCharsets.US_ASCII).equals(context.getMapDst()));
+            assertTrue(api_id.concat("KEYGEN_DST_", StandardCharsets.US_ASCII).equals(context.getKeyGenDst()));
+        }
+        assertSame(BbsContext.of(Ciphersuite.BLS12_381_SHA_256), BbsContext.getDefault());
+        // another interface of the SHA-256 suite gets its own context
+        var api_id = Ciphersuite.BLS12_381_SHA_256.getCiphersuiteId().concat("H2G_HM2S_OTHER_", StandardCharsets.US_ASCII);
+        var context = BbsContext.of(api_id);
+        assertSame(Ciphersuite.BLS12_381_SHA_256, context.getCiphersuite());
+        assertTrue(api_id.concat("H2S_", StandardCharsets.US_ASCII).equals(context.getHashToScalarDst()));
+        // api_ids without the prefix of a ciphersuite_id are of the SHA-256 suite
+        var custom = OctetString.valueOf("MY_APP_API_ID_", StandardCharsets.US_ASCII);
+        assertSame(Ciphersuite.BLS12_381_SHA_256, BbsContext.of(custom).getCiphersuite());
+        assertSame(Ciphersuite.BLS12_381_SHAKE_256, BbsContext.of(Ciphersuite.BLS12_381_SHAKE_256, custom).getCiphersuite());
+    }
+
+    @Test
+    public void signAndVerifyFixtures() throws Exception {
+        signAndVerifyFixtures(fixturePath, BbsContext.of(Ciphersuite.BLS12_381_SHA_256));
+        signAndVerifyFixtures(shakeFixturePath, BbsContext.of(Ciphersuite.BLS12_381_SHAKE_256));
+    }
+
+    private static void signAndVerifyFixtures(String fixturePath, BbsContext context) throws Exception {
+        for (var fixture : new File(fixturePath).list()){
+            try (FileReader reader = new FileReader(fixturePath + fixture)) {
+                var obj = (JSONObject) new JSONParser().parse(reader);
+                var keyPair = (JSONObject) obj.get("signerKeyPair");
+                var secretKey = new Scalar(new BigInteger((String) keyPair.get("secretKey"), 16));
+                var publicKey = OctetString.valueOfHexString((String) keyPair.get("publicKey"));
+                var header = OctetString.valueOfHexString((String) obj.get("header"));
+                var signature = OctetString.valueOfHexString((String) obj.get("signature"));
+                var valid = (Boolean) ((JSONObject) obj.get("result")).get("valid");
+                var builder = new Vector.Builder<OctetString>();
+                for (var message: (JSONArray) obj.get("messages")){
+                    builder.addValue(OctetString.valueOfHexString((String) message));
+                }
+                var messages = builder.build();
+                if(valid){
+                    assertTrue(signature.equals(context.sign(secretKey, publicKey, header, messages)));
+                }
+                assertEquals(valid, context.verify(publicKey, signature, header, messages));
+            }
+        }
+    }
+
+    @Test
+    public void proofOfContextVerifies(){
+        for (var ciphersuite: Ciphersuite.values()) {
+            var context = BbsContext.of(ciphersuite);
+            var secretKey = Scalar.of(BigInteger.valueOf(123456789));
+            var publicKey = context.skToPk(secretKey);
+            var header = OctetString.valueOf("context header", StandardCharsets.UTF_8);
+            var ph = OctetString.valueOf("context presentation header", StandardCharsets.UTF_8);
+            var messages = Vector.of(OctetString.valueOf("first", StandardCharsets.UTF_8), OctetString.valueOf("second", StandardCharsets.UTF_8), OctetString.valueOf("third", StandardCharsets.UTF_8));
+            var signature = context.sign(secretKey, publicKey, header, messages);
+            assertTrue(signature.equals(Sign.Sign(ciphersuite, secretKey, publicKey, header, messages)));
+            var disclosed_indexes = Vector.of(1, 3);
+            var disclosed_messages = Vector.of(messages.getValue(1), messages.getValue(3));
+            var proof = context.proofGen(publicKey, signature, header, ph, messages, disclosed_indexes);
+            assertTrue(context.proofVerify(publicKey, proof, header, ph, disclosed_messages, disclosed_indexes));
+            assertFalse(context.proofVerify(publicKey, proof, header, OctetString.valueOf("other", StandardCharsets.UTF_8), disclosed_messages, disclosed_indexes));
+        }
+    }
+
+    @Test
+    public void contextKeepsItsGenerators(){
+        var api_id = Ciphersuite.BLS12_381_SHA_256.getCiphersuiteId().concat("H2G_HM2S_CONTEXT_TEST_", StandardCharsets.US_ASCII);
+        var context = BbsContext.of(api_id);
+        var generators = context.getGenerators(4);
+        assertTrue(generators.equals(helper.create_generators(4, api_id)));
+        // the api_id is evicted from the cache, the context still serves its generators
+        GeneratorCache.getInstance().clear();
+        var again = context.getGenerators(3);
+        for (int i = 1; i <= 3; i++) {
+            assertSame(generators.getValue(i), again.getValue(i));
+        }
+        assertEquals(0, GeneratorCache.getInstance().getCachedApiIds());
+    }
+}
@@ -0,0 +1,102 @@
+package ch.bfh.p2bbs.Types;
+
+import ch.bfh.evg.field.Fp;
+import ch.bfh.p2bbs.utils.helper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OctetStringTest {
+
+    @Test
+    public void viewsShareArrayAndDirectBuffer(){
+        var random = new Random(3);
+        var bytes = new byte[100];
+        random.nextBytes(bytes);
+        var direct = ByteBuffer.allocateDirect(110).position(10);
+        direct.put(bytes).position(10);
+        var octets = new OctetString(bytes);
+        var buffered = OctetString.wrap(direct);
+        assertEquals(100, buffered.length);
+        assertEquals(10, direct.position());
+        assertTrue(octets.equals(buffered));
+        assertEquals(octets.hashCode(), buffered.hashCode());
+        for (var range: new int[][]{{0, 47}, {48, 79}, {5, 5}, {99, 99}}) {
+            var slice = octets.split(range[0], range[1]);
+            var bufferSlice = buffered.split(range[0], range[1]);
+            var expected = Arrays.copyOfRange(bytes, range[0], range[1] + 1);
+            assertArrayEquals(expected, slice.toBytes());
+            assertArrayEquals(expected, bufferSlice.toBytes());
+            assertEquals(slice, bufferSlice);
+            assertEquals(new BigInteger(1, expected), slice.toBigInteger());
+            assertEquals(new BigInteger(1, expected), bufferSlice.toBigInteger());
+            assertEquals(expected[0], bufferSlice.byteAt(0));
+            assertEquals(helper.os2ip(new OctetString(expected)).toBigInteger(), helper.os2ip(bufferSlice).toBigInteger());
+        }
+        assertFalse(octets.split(0, 9).equals(octets.split(1, 10)));
+        // a view of the whole array is the array, sub-views see changes of it
+        assertSame(bytes, octets.toBytes());
+        var view = OctetString.wrap(bytes, 20, 4);
+        bytes[21] ^= 1;
+        assertEquals(bytes[21], view.byteAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> octets.split(90, 100));
+        assertTrue(OctetString.INVALID.isInvalid());
+        assertFalse(OctetString.INVALID.equals(octets));
+    }
+
+    @Test
+    public void canonicalScalars(){
+        var bytes = new byte[40];
+        var r_octets = r.toByteArray();
+        System.arraycopy(r_octets, 0, bytes, 8, 32);
+        var view = OctetString.wrap(bytes, 8, 32);
+        assertTrue(Scalar.fromCanonicalOctets(view).isInvalid());
+        assertTrue(Scalar.fromOctets(view).isZero());
+        bytes[39] = 0;
+        var r_minus_one = Scalar.fromCanonicalOctets(view);
+        assertEquals(r.subtract(BigInteger.ONE), r_minus_one.toBigInteger());
+        assertTrue(Scalar.fromCanonicalOctets(OctetString.wrap(bytes, 8, 31)).isInvalid());
+        Arrays.fill(bytes, (byte) 0xff);
+        assertTrue(Scalar.fromCanonicalOctets(view).isInvalid());
+    }
+
+    @Test
+    public void decompressesLikeTheLibrary(){
+        var random = new Random(4);
+        var buffer = ByteBuffer.allocateDirect(10 * 48);
+        var expected = new byte[10][];
+        for (int i = 0; i < expected.length; i++) {
+            var point = G1Point.GENERATOR.times(Scalar.of(new BigInteger(255, random).mod(r)));
+            expected[i] = point.serialize();
+            buffer.put(expected[i]);
+        }
+        var octets = OctetString.wrap(buffer.flip());
+        for (int i = 0; i < expected.length; i++) {
+            var point = G1Point.deserialize(octets.slice(i * 48, 48));
+            assertFalse(point.isInvalid());
+            assertArrayEquals(expected[i], point.serialize());
+            assertEquals(new G1Point(G1.deserialize(expected[i])).toString(), point.toString());
+        }
+        var zero = G1Point.ZERO.serialize();
+        assertTrue(G1Point.deserialize(new OctetString(zero)).isZero());
+        // x = p, which the library accepts as x = 0
+        var p = ((Fp) G1.getField()).getCharacteristic().toByteArray();
+        var x_is_p = new byte[48];
+        System.arraycopy(p, p.length - 48, x_is_p, 0, 48);
+        x_is_p[0] |= (byte) 0x80;
+        assertTrue(G1Point.deserialize(new OctetString(x_is_p)).isInvalid());
+        var uncompressed = expected[0].clone();
+        uncompressed[0] &= 0x7f;
+        assertTrue(G1Point.deserialize(new OctetString(uncompressed)).isInvalid());
+        var infinity = zero.clone();
+        infinity[47] = 1;
+        assertTrue(G1Point.deserialize(new OctetString(infinity)).isInvalid());
+    }
+}
@@ -2,8 +2,11 @@ package ch.bfh.p2bbs.key;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.OctetString;
 import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.utils.Definitions;
+import ch.bfh.p2bbs.utils.ExpandMessageXof;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -15,9 +18,11 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 class KeyGenTest {
     private final OctetString key_dst = OctetString.valueOfHexString("");
     private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/keypair.json";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/keypair.json";
 
     @Test
     public void checkKeyPair(){
@@ -40,4 +45,44 @@ class KeyGenTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void checkKeyPairShake(){
+        checkKeyPair(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    @Test
+    public void customKeyDstUsesSuiteHash(){
+        var keyMaterial = OctetString.valueOfHexString("746869732d49532d6a7573742d616e2d546573742d494b4d2d746f2d67656e65726174652d246528724074232d6b6579");
+        var keyInfo = OctetString.valueOf("key info", StandardCharsets.US_ASCII);
+        var keyDst = OctetString.valueOf("MY-APP-KEYGEN-DST", StandardCharsets.US_ASCII);
+        var shake = KeyGen.KeyGen(Ciphersuite.BLS12_381_SHAKE_256, keyMaterial, keyInfo, keyDst);
+        var sha = KeyGen.KeyGen(Ciphersuite.BLS12_381_SHA_256, keyMaterial, keyInfo, keyDst);
+        // derive_input = key_material || I2OSP(length(key_info), 2) || key_info, hashed with expand_message_xof
+        var derive_input = keyMaterial.concat(new OctetString(new byte[]{0, (byte) keyInfo.length})).concat(keyInfo);
+        var uniform_bytes = new ExpandMessageXof(keyDst.toBytes(), 48).expand(derive_input.toBytes());
+        assertEquals(new BigInteger(1, uniform_bytes).mod(Definitions.r), shake.toBigInteger());
+        assertFalse(shake.equals(sha));
+    }
+
+    private void checkKeyPair(String fixturePath, Ciphersuite ciphersuite){
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath)){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            System.out.println(fixturePath + ": " + obj.get("caseName"));
+            var keyMaterial = OctetString.valueOfHexString((String) obj.get("keyMaterial"));
+            var keyInfo = OctetString.valueOfHexString((String) obj.get("keyInfo"));
+            var keyPair = (JSONObject) obj.get("keyPair");
+            var secretKey = new Scalar(new BigInteger((String) keyPair.get("secretKey"), 16));
+            var publicKey = OctetString.valueOfHexString((String) keyPair.get("publicKey"));
+            var sk = KeyGen.KeyGen(ciphersuite, keyMaterial, keyInfo, key_dst);
+            assertTrue(sk.equals(secretKey));
+            var pk = KeyGen.SkToPk(sk);
+            assertTrue(pk.equals(publicKey));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
\ No newline at end of file
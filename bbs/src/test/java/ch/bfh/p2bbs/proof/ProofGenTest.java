@@ -1,5 +1,7 @@
 package ch.bfh.p2bbs.proof;
 
+import ch.bfh.p2bbs.BbsContext;
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.*;
 import ch.bfh.p2bbs.excptions.Abort;
 import ch.openchvote.util.sequence.Vector;
@@ -23,10 +25,21 @@ class ProofGenTest {
 
     private static final OctetString SEED = OctetString.valueOfHexString("332e313431353932363533353839373933323338343632363433333833323739");
     private static final OctetString DST = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_H2G_HM2S_MOCK_RANDOM_SCALARS_DST_", StandardCharsets.US_ASCII);
+    private static final OctetString SHAKE_DST = OctetString.valueOf("BBS_BLS12381G1_XOF:SHAKE-256_SSWU_RO_H2G_HM2S_MOCK_RANDOM_SCALARS_DST_", StandardCharsets.US_ASCII);
     private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/proof/";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/proof/";
 
     @Test
     public void ProofGen(){
+        proofGen(fixturePath, DST, Ciphersuite.BLS12_381_SHA_256);
+    }
+
+    @Test
+    public void ProofGenShake(){
+        proofGen(shakeFixturePath, SHAKE_DST, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void proofGen(String fixturePath, OctetString DST, Ciphersuite ciphersuite){
         var fixtures = new String[]{"proof001.json", "proof002.json", "proof003.json", "proof014.json", "proof015.json"};
 
         for (var fixture : fixtures){
@@ -55,7 +68,7 @@ class ProofGenTest {
 
                 var revealed_indexes = builder.build();
                 var messages = messageBuilder.build();
-                var random_scalars = mockedRandomScalars(SEED, DST, 5+(messages.getLength()-revealed_indexes.getLength()));
+                var random_scalars = mockedRandomScalars(SEED, DST, 5+(messages.getLength()-revealed_indexes.getLength()), ciphersuite);
 
                 try (MockedStatic<ProofGen> mocked = Mockito.mockStatic(ProofGen.class)) {
                     mocked.when(() -> ProofGen.calculate_random_scalars(anyInt()))
@@ -63,13 +76,17 @@ class ProofGenTest {
                     mocked.when(() -> ProofGen.splitIndexes(any(), anyInt(), anyInt())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.splitScalarVector(any(), anyInt())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.ProofGen(any(), any(), any(), any(), any(), any())).thenCallRealMethod();
+                    mocked.when(() -> ProofGen.ProofGen(any(Ciphersuite.class), any(), any(), any(), any(), any(), any())).thenCallRealMethod();
+                    mocked.when(() -> ProofGen.ProofGen(any(BbsContext.class), any(), any(), any(), any(), any(), any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.CoreProofGen(any(), any(), any(), any(), any(), any(), any(), any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.ProofInit(any(), any(), any(), any(), any(), any(), any(), any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.ProofFinalize(any(), any(), any(), any(), any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.proof_to_octets(any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.getIndexedMessages(any(), any())).thenCallRealMethod();
                     mocked.when(() -> ProofGen.getIndexedGenerators(any(), any())).thenCallRealMethod();
-                    var proofRes = ProofGen.ProofGen(publicKey, signature, header, ph, messages, revealed_indexes);
+                    var proofRes = ciphersuite == Ciphersuite.BLS12_381_SHA_256
+                            ? ProofGen.ProofGen(publicKey, signature, header, ph, messages, revealed_indexes)
+                            : ProofGen.ProofGen(ciphersuite, publicKey, signature, header, ph, messages, revealed_indexes);
                     assertTrue(proofRes.equals(proof));
                 }
 
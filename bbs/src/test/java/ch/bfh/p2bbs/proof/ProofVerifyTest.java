@@ -1,6 +1,11 @@
 package ch.bfh.p2bbs.proof;
 
+import ch.bfh.p2bbs.Ciphersuite;
+import ch.bfh.p2bbs.BbsContext;
 import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.key.KeyGen;
+import ch.bfh.p2bbs.utils.GeneratorCache;
 import ch.openchvote.util.sequence.Vector;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -11,6 +16,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class ProofVerifyTest {
 
     private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/proof/";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/proof/";
 
     @Test
     public void ProofVerify(){
@@ -68,4 +76,154 @@ class ProofVerifyTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void ProofVerifyShake(){
+        proofVerify(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void proofVerify(String fixturePath, Ciphersuite ciphersuite){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+
+        for (var fixture : fixtures){
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(fixturePath + fixture))
+            {
+                var obj = (JSONObject) jsonParser.parse(reader);
+                System.out.println(fixture + ": " + obj.get("caseName"));
+                var publicKey = OctetString.valueOfHexString((String) obj.get("signerPublicKey"));
+                var header = OctetString.valueOfHexString((String) obj.get("header"));
+                var ph = OctetString.valueOfHexString((String) obj.get("presentationHeader"));
+                var messages_base = (JSONArray) obj.get("messages");
+                var revealed_indexes_base = (JSONArray) obj.get("disclosedIndexes");
+                var proof = OctetString.valueOfHexString((String) obj.get("proof"));
+                var result = ((JSONObject) obj.get("result")).get("valid");
+
+                var builder = new Vector.Builder<Integer>();
+                for (var revealed_index: revealed_indexes_base){
+                    builder.addValue(Math.toIntExact((Long) revealed_index)+1);
+                }
+                var revealed_indexes = builder.build();
+
+                var indexArr = new ArrayList<Integer>();
+
+                var revealedBuilder = new Vector.Builder<OctetString>();
+                for (int i = 1; i <= revealed_indexes.getLength(); i++){
+                    var value = OctetString.valueOfHexString((String) messages_base.get(revealed_indexes.getValue(i)-1));
+                    if(!indexArr.contains(revealed_indexes.getValue(i)-1)) {
+                        indexArr.add(revealed_indexes.getValue(i)-1);
+                        revealedBuilder.addValue(value);
+                    }
+                }
+                var revealedMessages = revealedBuilder.build();
+
+                var valid = ProofVerify.ProofVerify(ciphersuite, publicKey, proof, header, ph, revealedMessages, revealed_indexes);
+                assertEquals(result, valid);
+
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (org.json.simple.parser.ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Test
+    public void BatchProofVerify(){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+        var publicKeys = new Vector.Builder<OctetString>();
+        var proofs = new Vector.Builder<OctetString>();
+        var headers = new Vector.Builder<OctetString>();
+        var phs = new Vector.Builder<OctetString>();
+        var messageLists = new Vector.Builder<Vector<OctetString>>();
+        var indexLists = new Vector.Builder<Vector<Integer>>();
+        var expected = new Vector.Builder<Boolean>();
+        for (var fixture : fixtures){
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(fixturePath + fixture))
+            {
+                var obj = (JSONObject) jsonParser.parse(reader);
+                var messages_base = (JSONArray) obj.get("messages");
+                var builder = new Vector.Builder<Integer>();
+                for (var revealed_index: (JSONArray) obj.get("disclosedIndexes")){
+                    builder.addValue(Math.toIntExact((Long) revealed_index)+1);
+                }
+                var revealed_indexes = builder.build();
+                var indexArr = new ArrayList<Integer>();
+                var revealedBuilder = new Vector.Builder<OctetString>();
+                for (int i = 1; i <= revealed_indexes.getLength(); i++){
+                    var value = OctetString.valueOfHexString((String) messages_base.get(revealed_indexes.getValue(i)-1));
+                    if(!indexArr.contains(revealed_indexes.getValue(i)-1)) {
+                        indexArr.add(revealed_indexes.getValue(i)-1);
+                        revealedBuilder.addValue(value);
+                    }
+                }
+                publicKeys.addValue(OctetString.valueOfHexString((String) obj.get("signerPublicKey")));
+                proofs.addValue(OctetString.valueOfHexString((String) obj.get("proof")));
+                headers.addValue(OctetString.valueOfHexString((String) obj.get("header")));
+                phs.addValue(OctetString.valueOfHexString((String) obj.get("presentationHeader")));
+                messageLists.addValue(revealedBuilder.build());
+                indexLists.addValue(revealed_indexes);
+                expected.addValue((Boolean) ((JSONObject) obj.get("result")).get("valid"));
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (org.json.simple.parser.ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        var results = ProofVerify.batchVerify(publicKeys.build(), proofs.build(), headers.build(), phs.build(), messageLists.build(), indexLists.build());
+        var expectedResults = expected.build();
+        assertEquals(expectedResults.getLength(), results.getLength());
+        for (int i = 1; i <= results.getLength(); i++) {
+            assertEquals(expectedResults.getValue(i), results.getValue(i));
+        }
+    }
+
+    @Test
+    public void malformedProofIsRejectedBeforeGenerators(){
+        // an api_id of its own, so any derived generator would show up as a new cache entry
+        var context = BbsContext.of(Ciphersuite.BLS12_381_SHA_256.getCiphersuiteId().concat("H2G_HM2S_PROOF_TEST_", StandardCharsets.US_ASCII));
+        var cache = GeneratorCache.getInstance();
+        var apiIds = cache.getCachedApiIds();
+        var publicKey = KeyGen.SkToPk(Scalar.of(BigInteger.valueOf(5)));
+        var empty = new Vector.Builder<OctetString>().build();
+        var none = new Vector.Builder<Integer>().build();
+        // 3 points and 4 + 4000 scalars, all 0
+        var zeros = new OctetString(new byte[3 * 48 + 4004 * 32]);
+        assertFalse(ProofVerify.ProofVerify(context, publicKey, zeros, OctetString.valueOfHexString(""), OctetString.valueOfHexString(""), empty, none));
+        assertFalse(ProofVerify.batchVerify(context, Vector.of(publicKey), Vector.of(zeros), Vector.of(OctetString.valueOfHexString("")), Vector.of(OctetString.valueOfHexString("")), Vector.of(empty), Vector.of(none)).getValue(1));
+        // canonical scalars of 1, but more messages than getMaxMessages()
+        var ones = new byte[3 * 48 + (4 + ProofVerify.getMaxMessages() + 1) * 32];
+        for (int offset = 3 * 48 + 31; offset < ones.length; offset += 32) {
+            ones[offset] = 1;
+        }
+        assertFalse(ProofVerify.ProofVerify(context, publicKey, new OctetString(ones), OctetString.valueOfHexString(""), OctetString.valueOfHexString(""), empty, none));
+        assertEquals(apiIds, cache.getCachedApiIds());
+    }
+
+    @Test
+    public void maxMessagesBoundsProofs() throws Exception {
+        try (FileReader reader = new FileReader(fixturePath + "proof001.json")){
+            var obj = (JSONObject) new JSONParser().parse(reader);
+            var publicKey = OctetString.valueOfHexString((String) obj.get("signerPublicKey"));
+            var proof = OctetString.valueOfHexString((String) obj.get("proof"));
+            var header = OctetString.valueOfHexString((String) obj.get("header"));
+            var ph = OctetString.valueOfHexString((String) obj.get("presentationHeader"));
+            var messages = Vector.of(OctetString.valueOfHexString((String) ((JSONArray) obj.get("messages")).get(0)));
+            var indexes = Vector.of(1);
+            assertTrue(ProofVerify.ProofVerify(publicKey, proof, header, ph, messages, indexes));
+            var max = ProofVerify.getMaxMessages();
+            try {
+                ProofVerify.setMaxMessages(0);
+                assertFalse(ProofVerify.ProofVerify(publicKey, proof, header, ph, messages, indexes));
+            } finally {
+                ProofVerify.setMaxMessages(max);
+            }
+            assertThrows(IllegalArgumentException.class, () -> ProofVerify.setMaxMessages(-1));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ch.bfh.p2bbs.signature;
 
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.OctetString;
 import ch.bfh.p2bbs.Types.Scalar;
 import ch.openchvote.util.sequence.Vector;
@@ -13,11 +14,15 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class SignTest {
     private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/signature/";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/signature/";
 
     @Test
     public void GenAndVerifySignature(){
@@ -56,4 +61,171 @@ class SignTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void GenAndVerifySignatureShake(){
+        genAndVerifySignature(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void genAndVerifySignature(String fixturePath, Ciphersuite ciphersuite){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+        for (var fixture : fixtures){
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(fixturePath + fixture))
+            {
+                var obj = (JSONObject) jsonParser.parse(reader);
+                System.out.println(fixture + ": " + obj.get("caseName"));
+                var keyPair = (JSONObject) obj.get("signerKeyPair");
+                var secretKey = new Scalar(new BigInteger((String) keyPair.get("secretKey"), 16));
+                var publicKey = OctetString.valueOfHexString((String) keyPair.get("publicKey"));
+                var header = OctetString.valueOfHexString((String) obj.get("header"));
+                var signature = OctetString.valueOfHexString((String) obj.get("signature"));
+                var messages_base = (JSONArray) obj.get("messages");
+                var valid = (Boolean) ((JSONObject) obj.get("result")).get("valid");
+                var builder = new Vector.Builder<OctetString>();
+                for (var message: messages_base){
+                    builder.addValue(OctetString.valueOfHexString((String) message));
+                }
+                var messages = builder.build();
+                if(valid){
+                    var res = Sign.Sign(ciphersuite, secretKey, publicKey, header, messages);
+                    assertTrue(signature.equals(res));
+                }
+                var res = SignVerify.Verify(ciphersuite, publicKey, signature, header, messages);
+                assertEquals(valid, res);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (org.json.simple.parser.ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Test
+    public void BatchVerifySignatures(){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+        var publicKeys = new Vector.Builder<OctetString>();
+        var signatures = new Vector.Builder<OctetString>();
+        var headers = new Vector.Builder<OctetString>();
+        var messageLists = new Vector.Builder<Vector<OctetString>>();
+        var expected = new Vector.Builder<Boolean>();
+        // every fixture twice, so the batch contains several signatures per public key
+        for (int round = 0; round < 2; round++) {
+            for (var fixture : fixtures){
+                JSONParser jsonParser = new JSONParser();
+                try (FileReader reader = new FileReader(fixturePath + fixture))
+                {
+                    var obj = (JSONObject) jsonParser.parse(reader);
+                    var keyPair = (JSONObject) obj.get("signerKeyPair");
+                    publicKeys.addValue(OctetString.valueOfHexString((String) keyPair.get("publicKey")));
+                    signatures.addValue(OctetString.valueOfHexString((String) obj.get("signature")));
+                    headers.addValue(OctetString.valueOfHexString((String) obj.get("header")));
+                    var builder = new Vector.Builder<OctetString>();
+                    for (var message: (JSONArray) obj.get("messages")){
+                        builder.addValue(OctetString.valueOfHexString((String) message));
+                    }
+                    messageLists.addValue(builder.build());
+                    expected.addValue((Boolean) ((JSONObject) obj.get("result")).get("valid"));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (org.json.simple.parser.ParseException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        var results = SignVerify.batchVerify(publicKeys.build(), signatures.build(), headers.build(), messageLists.build());
+        var expectedResults = expected.build();
+        assertEquals(expectedResults.getLength(), results.getLength());
+        for (int i = 1; i <= results.getLength(); i++) {
+            assertEquals(expectedResults.getValue(i), results.getValue(i));
+        }
+    }
+
+    @Test
+    public void SignerMatchesSign(){
+        signerMatchesSign(fixturePath, Ciphersuite.BLS12_381_SHA_256);
+        signerMatchesSign(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void signerMatchesSign(String fixturePath, Ciphersuite ciphersuite){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+        for (var fixture : fixtures){
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(fixturePath + fixture))
+            {
+                var obj = (JSONObject) jsonParser.parse(reader);
+                if(!(Boolean) ((JSONObject) obj.get("result")).get("valid")) continue;
+                var keyPair = (JSONObject) obj.get("signerKeyPair");
+                var secretKey = new Scalar(new BigInteger((String) keyPair.get("secretKey"), 16));
+                var publicKey = OctetString.valueOfHexString((String) keyPair.get("publicKey"));
+                var header = OctetString.valueOfHexString((String) obj.get("header"));
+                var signature = OctetString.valueOfHexString((String) obj.get("signature"));
+                var builder = new Vector.Builder<OctetString>();
+                for (var message: (JSONArray) obj.get("messages")){
+                    builder.addValue(OctetString.valueOfHexString((String) message));
+                }
+                var messages = builder.build();
+                var signer = Signer.of(ciphersuite, secretKey, publicKey, header, messages.getLength());
+                // the same signer twice, its precomputed state must not change
+                assertTrue(signature.equals(signer.sign(messages)));
+                assertTrue(signature.equals(signer.sign(messages)));
+                var other = new Vector.Builder<OctetString>(messages.getLength());
+                for (int i = 1; i <= messages.getLength(); i++) {
+                    other.addValue(OctetString.valueOf("signer " + i, StandardCharsets.UTF_8));
+                }
+                var otherMessages = other.build();
+                assertTrue(Sign.Sign(ciphersuite, secretKey, publicKey, header, otherMessages).equals(signer.sign(otherMessages)));
+                var empty = new Vector.Builder<OctetString>().build();
+                assertTrue(Sign.Sign(ciphersuite, secretKey, publicKey, header, empty).equals(Signer.of(ciphersuite, secretKey, publicKey, header, 0).sign(empty)));
+                assertThrows(IllegalArgumentException.class, () -> signer.sign(empty));
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (org.json.simple.parser.ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Test
+    public void SignBatchMatchesSign(){
+        File directoryPath = new File(fixturePath);
+        var fixtures = directoryPath.list();
+        for (var fixture : fixtures){
+            JSONParser jsonParser = new JSONParser();
+            try (FileReader reader = new FileReader(fixturePath + fixture))
+            {
+                var obj = (JSONObject) jsonParser.parse(reader);
+                if(!(Boolean) ((JSONObject) obj.get("result")).get("valid")) continue;
+                var keyPair = (JSONObject) obj.get("signerKeyPair");
+                var secretKey = new Scalar(new BigInteger((String) keyPair.get("secretKey"), 16));
+                var publicKey = OctetString.valueOfHexString((String) keyPair.get("publicKey"));
+                var header = OctetString.valueOfHexString((String) obj.get("header"));
+                var signature = OctetString.valueOfHexString((String) obj.get("signature"));
+                var builder = new Vector.Builder<OctetString>();
+                for (var message: (JSONArray) obj.get("messages")){
+                    builder.addValue(OctetString.valueOfHexString((String) message));
+                }
+                var messages = builder.build();
+                // the fixture messages, a shorter vector and the fixture messages again
+                var shorter = new Vector.Builder<OctetString>().addValue(OctetString.valueOf("batch", StandardCharsets.UTF_8)).build();
+                var batch = new Vector.Builder<Vector<OctetString>>().addValue(messages).addValue(shorter).addValue(messages).build();
+                for (var executor: new Executor[]{ForkJoinPool.commonPool(), null}) {
+                    var signatures = Sign.signBatch(secretKey, publicKey, header, batch, executor);
+                    assertEquals(3, signatures.getLength());
+                    assertTrue(signature.equals(signatures.getValue(1)));
+                    assertTrue(Sign.Sign(secretKey, publicKey, header, shorter).equals(signatures.getValue(2)));
+                    assertTrue(signature.equals(signatures.getValue(3)));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (org.json.simple.parser.ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.G2Point;
+import ch.bfh.p2bbs.Types.PreparedG2Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPairingCheckTest {
+
+    @Test
+    public void findsInvalidChecks(){
+        // e(X, b * G2) * e(b * X, -G2) == 1 for two keys b, every third check is broken
+        var keys = new long[]{5, 7};
+        var Ws = new PreparedG2Point[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            Ws[k] = new PreparedG2Point(G2Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(keys[k]))));
+        }
+        var batch = new BatchPairingCheck();
+        var expected = new boolean[12];
+        for (int i = 0; i < expected.length; i++) {
+            var k = i % keys.length;
+            var X = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(100 + i)));
+            expected[i] = i % 3 != 1;
+            var b = Scalar.of(BigInteger.valueOf(expected[i] ? keys[k] : keys[k] + 1));
+            batch.add(String.valueOf(keys[k]), Ws[k], X, new G1Point[]{X}, new Scalar[]{b});
+        }
+        assertArrayEquals(expected, batch.verify());
+    }
+
+    @Test
+    public void emptyBatch(){
+        assertEquals(0, new BatchPairingCheck().verify().length);
+    }
+}
@@ -0,0 +1,38 @@
+package ch.bfh.p2bbs.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ch.bfh.evg.util.Hash.expandMessageXMD_SHA_256;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpandMessageXmdTest {
+
+    @Test
+    public void matchesOneShotExpansion(){
+        var random = new Random(3);
+        var dst = "QUUX-V01-CS02-with-expander-SHA256-128".getBytes(StandardCharsets.US_ASCII);
+        for (var length: new int[]{1, 32, 48, 64, 100, 255}) {
+            var expander = new ExpandMessageXmd(dst, length);
+            for (var msgLength: new int[]{0, 1, 55, 64, 65, 200}) {
+                var msg = new byte[msgLength];
+                random.nextBytes(msg);
+                var expected = expandMessageXMD_SHA_256(msg, dst, length);
+                assertArrayEquals(expected, expander.expand(msg));
+                // the same message in two parts
+                var split = msgLength / 3;
+                var stream = expander.start().update(msg, 0, split).update(msg, split, msgLength - split);
+                assertArrayEquals(expected, stream.finish());
+            }
+        }
+    }
+
+    @Test
+    public void rejectsInvalidParameters(){
+        assertThrows(IllegalArgumentException.class, () -> new ExpandMessageXmd(new byte[256], 48));
+        assertThrows(IllegalArgumentException.class, () -> new ExpandMessageXmd(new byte[8], 255 * 32 + 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExpandMessageXmd(new byte[8], 0));
+    }
+}
@@ -0,0 +1,62 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.G2Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+import static ch.bfh.p2bbs.utils.Definitions.G2;
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedBaseTableTest {
+
+    private static final Random random = new Random(11);
+
+    @Test
+    public void matchesDoubleAndAdd(){
+        var P = G1.times(G1.getGenerator(), new BigInteger(64, random));
+        var scalars = new BigInteger[]{BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(-3), r.subtract(BigInteger.ONE), new BigInteger(255, random).mod(r)};
+        for (int teeth : new int[]{1, 4, 7}) {
+            var table = new FixedBaseTable<>(G1, P, teeth);
+            assertEquals((1 << teeth) - 1, table.getSize());
+            for (var k : scalars) {
+                assertTrue(G1.isZero(G1.subtract(G1.times(P, k.mod(r)), table.multiply(k))));
+            }
+        }
+    }
+
+    @Test
+    public void fixedBaseTermsInMultiScalarMultiplication(){
+        var base = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(5)));
+        var fixed = base.asFixedBase();
+        // asFixedBase returns a copy, the point itself stays a variable base
+        assertFalse(base.isFixedBase());
+        assertEquals(FixedBaseTable.DEFAULT_TEETH, fixed.getFixedBaseTable().getTeeth());
+        assertEquals(3, base.asFixedBase(3).getFixedBaseTable().getTeeth());
+        assertThrows(IllegalArgumentException.class, () -> base.asFixedBase(FixedBaseTable.MAX_TEETH + 1));
+        var other = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(9)));
+        var k1 = Scalar.of(new BigInteger(255, random).mod(r));
+        var k2 = Scalar.of(new BigInteger(255, random).mod(r));
+        var expected = G1Point.GENERATOR.times(k1.multiply(Scalar.of(BigInteger.valueOf(5))).add(k2.multiply(Scalar.of(BigInteger.valueOf(9)))).mod(r));
+        var result = G1Point.sumOfScalarMultiply(new G1Point[]{fixed, other}, new Scalar[]{k1, k2});
+        assertArrayEquals(expected.serialize(), result.serialize());
+        assertNotNull(fixed.getFixedBaseTable());
+        assertNull(other.getFixedBaseTable());
+        assertArrayEquals(G1Point.GENERATOR.times(k1.multiply(Scalar.of(BigInteger.valueOf(5))).mod(r)).serialize(), fixed.times(k1).serialize());
+    }
+
+    @Test
+    public void g2GeneratorUsesTable(){
+        for (var k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(-2), new BigInteger(255, random).mod(r)}) {
+            var expected = G2.times(G2Point.GENERATOR.getPoint(), k.mod(r));
+            assertTrue(G2.isZero(G2.subtract(expected, G2Point.GENERATOR.timesFixedBase(Scalar.of(k.mod(r))).getPoint())));
+        }
+        var generator = G2Point.deserialize(G2Point.GENERATOR.serialize());
+        assertThrows(IllegalArgumentException.class, () -> generator.timesFixedBase(Scalar.of(BigInteger.ONE)));
+    }
+}
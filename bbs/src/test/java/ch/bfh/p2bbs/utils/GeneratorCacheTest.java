@@ -0,0 +1,77 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratorCacheTest {
+
+    private static final OctetString api_id = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_CACHE_TEST_", StandardCharsets.US_ASCII);
+    private static final OctetString other_api_id = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_OTHER_CACHE_TEST_", StandardCharsets.US_ASCII);
+
+    @Test
+    public void servesPrefixesAndExtends(){
+        var cache = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS);
+        var first = cache.getGenerators(3, api_id);
+        assertEquals(1, cache.getMisses());
+        var prefix = cache.getGenerators(2, api_id);
+        assertEquals(1, cache.getHits());
+        var extended = cache.getGenerators(5, api_id);
+        assertEquals(1, cache.getExtensions());
+        assertEquals(5, cache.getCachedGenerators());
+
+        var fresh = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS).getGenerators(5, api_id);
+        assertTrue(fresh.equals(extended));
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(extended.getValue(i).equals(first.getValue(i)));
+        }
+        for (int i = 1; i <= 2; i++) {
+            assertTrue(extended.getValue(i).equals(prefix.getValue(i)));
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedApiId(){
+        var cache = new GeneratorCache(4);
+        cache.getGenerators(3, api_id);
+        cache.getGenerators(2, other_api_id);
+        assertEquals(1, cache.getCachedApiIds());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getCachedGenerators());
+        cache.getGenerators(3, api_id);
+        assertEquals(3, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void parallelDerivationMatchesSequential(){
+        var sequential = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS).getGenerators(9, api_id, null);
+        var pool = Executors.newFixedThreadPool(3);
+        try {
+            var cache = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS);
+            cache.getGenerators(2, api_id, pool);
+            var parallel = cache.getGenerators(9, api_id, pool);
+            assertTrue(parallel.equals(sequential));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void memoryBoundCountsCombTables(){
+        var cache = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS, GeneratorTable.INVALID, 4);
+        // four generators, each with a table of 15 points
+        cache.setMaxMemory(4L * 16 * GeneratorCache.POINT_BYTES);
+        var generators = cache.getGenerators(3, api_id);
+        assertEquals(3L * 16 * GeneratorCache.POINT_BYTES, cache.getMemoryUsage());
+        assertEquals(4, generators.getValue(1).getFixedBaseTable().getTeeth());
+        cache.getGenerators(2, other_api_id);
+        assertEquals(1, cache.getCachedApiIds());
+        assertEquals(1, cache.getEvictions());
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorCache(4, null, 0));
+    }
+}
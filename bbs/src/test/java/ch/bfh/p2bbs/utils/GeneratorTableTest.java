@@ -0,0 +1,64 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratorTableTest {
+
+    private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/";
+    private static final OctetString test_api_id = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_TABLE_TEST_", StandardCharsets.US_ASCII);
+
+    @Test
+    public void defaultTableMatchesFixture(){
+        var table = GeneratorTable.getDefault();
+        assertFalse(table.isInvalid());
+        assertTrue(table.covers(GeneratorTable.API_ID));
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath + "generators.json")){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            var MsgGenerators = (JSONArray) obj.get("MsgGenerators");
+            var generators = table.getGenerators();
+            assertTrue(generators.length >= MsgGenerators.size() + 1);
+            var Q1 = G1Point.deserialize(OctetString.valueOfHexString((String) obj.get("Q1")).toBytes());
+            assertTrue(generators[0].equals(Q1));
+            for (int i = 0; i < MsgGenerators.size(); i++) {
+                var H_i = G1Point.deserialize(OctetString.valueOfHexString((String) MsgGenerators.get(i)).toBytes());
+                assertTrue(generators[i+1].equals(H_i));
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void rejectsCorruptedTable(){
+        var data = GeneratorCache.derive(2, test_api_id).write();
+        assertFalse(GeneratorTable.read(data).isInvalid());
+        data[data.length / 2] ^= 1;
+        assertTrue(GeneratorTable.read(data).isInvalid());
+    }
+
+    @Test
+    public void extendsBeyondTable(){
+        var table = GeneratorTable.read(GeneratorCache.derive(3, test_api_id).write());
+        var cache = new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS, table);
+        var generators = cache.getGenerators(5, test_api_id);
+        assertEquals(1, cache.getExtensions());
+        assertEquals(0, cache.getMisses());
+        assertTrue(generators.equals(new GeneratorCache(GeneratorCache.DEFAULT_MAX_GENERATORS, GeneratorTable.INVALID).getGenerators(5, test_api_id)));
+    }
+}
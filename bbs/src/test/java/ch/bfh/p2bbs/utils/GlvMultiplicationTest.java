@@ -0,0 +1,71 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.G1Point;
+import ch.bfh.evg.field.Fp;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.G1;
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlvMultiplicationTest {
+
+    private static final Random random = new Random(7);
+
+    @Test
+    public void endomorphismActsAsLambda(){
+        var P = G1.times(G1.getGenerator(), BigInteger.valueOf(12345));
+        assertTrue(equal(GlvMultiplication.phi(P), G1.times(P, GlvMultiplication.LAMBDA)));
+        assertEquals(BigInteger.ZERO, GlvMultiplication.LAMBDA.pow(2).add(GlvMultiplication.LAMBDA).add(BigInteger.ONE).mod(r));
+    }
+
+    @Test
+    public void decompositionIsHalfLength(){
+        for (int i = 0; i < 20; i++) {
+            var k = new BigInteger(255, random).mod(r);
+            var parts = GlvMultiplication.decompose(k);
+            assertEquals(k, parts[0].add(parts[1].multiply(GlvMultiplication.LAMBDA)));
+            assertTrue(parts[0].bitLength() <= 128 && parts[1].bitLength() <= 128);
+        }
+    }
+
+    @Test
+    public void matchesDoubleAndAdd(){
+        var P = G1.times(G1.getGenerator(), new BigInteger(64, random));
+        var scalars = new BigInteger[]{BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(-5), r.subtract(BigInteger.ONE), r,
+                GlvMultiplication.LAMBDA, new BigInteger(255, random).mod(r), new BigInteger(300, random)};
+        for (var k : scalars) {
+            assertTrue(equal(G1.times(P, k.mod(r)), GlvMultiplication.multiply(P, k)), k.toString(16));
+        }
+        assertTrue(G1.isZero(GlvMultiplication.multiply(G1.getZero(), BigInteger.TEN)));
+    }
+
+    @Test
+    public void decodingRejectsPointsOutsideOfG1(){
+        var Q = randomCurvePoint();
+        assertFalse(G1.isZero(G1.times(Q, r)));
+        // GlvMultiplication is only correct in G1, G1Point does not decode other points of the curve
+        assertThrows(IllegalArgumentException.class, () -> ch.bfh.p2bbs.Types.G1Point.deserialize(G1.serialize(Q)));
+        var P = G1.times(G1.getGenerator(), new BigInteger(255, random));
+        assertTrue(equal(P, ch.bfh.p2bbs.Types.G1Point.deserialize(G1.serialize(P)).getPoint()));
+    }
+
+    // a point on E, which is not in G1 with overwhelming probability as the cofactor is not cleared
+    private static G1Point randomCurvePoint(){
+        var field = (Fp) G1.getField();
+        var p = field.getCharacteristic();
+        while (true) {
+            var x = new BigInteger(381, random).mod(p);
+            var y2 = x.pow(3).add(BigInteger.valueOf(4)).mod(p);
+            var y = y2.modPow(p.add(BigInteger.ONE).shiftRight(2), p);
+            if(y.multiply(y).mod(p).equals(y2)) return G1.getPoint(field.getElement(x), field.getElement(y));
+        }
+    }
+
+    private static boolean equal(G1Point a, G1Point b){
+        return G1.isZero(G1.subtract(a, b));
+    }
+}
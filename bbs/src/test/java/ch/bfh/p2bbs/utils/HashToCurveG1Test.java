@@ -0,0 +1,59 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashToCurveG1Test {
+
+    @Test
+    public void matchesLibraryWithExpandMessageXmd(){
+        var random = new Random(5);
+        var dst = OctetString.valueOf("QUUX-V01-CS02-with-BLS12381G1_XMD:SHA-256_SSWU_RO_", StandardCharsets.US_ASCII);
+        for (var msgLength: new int[]{0, 3, 32, 100}) {
+            var msg = new byte[msgLength];
+            random.nextBytes(msg);
+            var expected = G1Point.hash_to_curve_g1(msg, dst);
+            var stream = new ExpandMessageXmd(dst.toBytes(), HashToCurveG1.LENGTH).start().update(msg);
+            assertArrayEquals(expected.serialize(), HashToCurveG1.hash_to_curve(stream).serialize());
+        }
+    }
+
+    @Test
+    public void expandMessageXofStreamsAndSqueezesIntoBuffer(){
+        var random = new Random(6);
+        var dst = OctetString.valueOf("QUUX-V01-CS02-with-expander-SHAKE256", StandardCharsets.US_ASCII);
+        for (var length: new int[]{1, 32, 48, 128, 300}) {
+            var expander = new ExpandMessageXof(dst.toBytes(), length);
+            var msg = new byte[77];
+            random.nextBytes(msg);
+            // one-shot SHAKE-256 of msg || I2OSP(len_in_bytes, 2) || DST || I2OSP(len(DST), 1)
+            var digest = new SHAKEDigest(256);
+            digest.update(msg, 0, msg.length);
+            digest.update(new byte[]{(byte) (length >>> 8), (byte) length}, 0, 2);
+            digest.update(dst.toBytes(), 0, dst.length);
+            digest.update((byte) dst.length);
+            var expected = new byte[length];
+            digest.doFinal(expected, 0, length);
+            assertArrayEquals(expected, expander.expand(msg));
+            assertArrayEquals(expected, helper.expand_message_xof(new OctetString(msg), dst, length).toBytes());
+            var out = new byte[length + 10];
+            expander.start().update(msg, 0, 30).update(msg, 30, 47).finish(out, 5);
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[i], out[i + 5]);
+            }
+        }
+    }
+
+    @Test
+    public void rejectsWrongOutputLength(){
+        var stream = new ExpandMessageXof(new byte[8], 48).start();
+        assertThrows(IllegalArgumentException.class, () -> HashToCurveG1.hash_to_curve(stream));
+    }
+}
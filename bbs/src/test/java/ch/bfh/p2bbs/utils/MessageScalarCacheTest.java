@@ -0,0 +1,102 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.openchvote.util.sequence.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static ch.bfh.p2bbs.utils.Definitions.CIPHERSUITE_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageScalarCacheTest {
+
+    private static final OctetString api_id = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
+    private static final OctetString other_api_id = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_OTHER_CACHE_TEST_", StandardCharsets.US_ASCII);
+
+    @Test
+    public void frequentMessagesSurviveOneOffs(){
+        var cache = new MessageScalarCache(2, 16);
+        var frequent = message("CH");
+        for (int i = 0; i < 3; i++) {
+            if(cache.get(api_id, frequent) == null) cache.put(api_id, frequent, scalar(1));
+        }
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        for (int i = 0; i < 10; i++) {
+            var oneOff = message("value " + i);
+            if(cache.get(api_id, oneOff) == null) cache.put(api_id, oneOff, scalar(i + 2));
+        }
+        assertEquals(2, cache.getCachedScalars());
+        assertTrue(cache.get(api_id, frequent).equals(scalar(1)));
+        assertTrue(cache.getRejections() > 0);
+        assertTrue(cache.getMemoryUsage() > 0);
+        // the api_id is part of the key
+        assertNull(cache.get(other_api_id, frequent));
+    }
+
+    @Test
+    public void skipsLongMessages(){
+        var cache = new MessageScalarCache(4, 4);
+        var message = message("longer than four bytes");
+        assertFalse(cache.isCacheable(message));
+        cache.put(api_id, message, scalar(1));
+        assertEquals(0, cache.getCachedScalars());
+    }
+
+    @Test
+    public void messagesToScalarsUsesCache(){
+        var messages = new Vector.Builder<OctetString>(3)
+                .addValue(OctetString.valueOf("CH", StandardCharsets.US_ASCII))
+                .addValue(OctetString.valueOf("true", StandardCharsets.US_ASCII))
+                .addValue(OctetString.valueOf("CH", StandardCharsets.US_ASCII))
+                .build();
+        var expected = MessagesToScalars.messagesToScalars(messages, api_id, null);
+        var cache = MessageScalarCache.getInstance();
+        MessageScalarCache.setEnabled(true);
+        try {
+            cache.clear();
+            var first = helper.messages_to_scalars(messages, api_id);
+            var second = helper.messages_to_scalars(messages, api_id);
+            for (int i = 1; i <= 3; i++) {
+                assertTrue(expected.getValue(i).equals(first.getValue(i)));
+                assertTrue(expected.getValue(i).equals(second.getValue(i)));
+            }
+            assertEquals(2, cache.getCachedScalars());
+            assertEquals(4.0 / 6, cache.getHitRate(), 1e-9);
+        } finally {
+            MessageScalarCache.setEnabled(false);
+            cache.clear();
+        }
+    }
+
+    @Test
+    public void stripedCacheServesConcurrentLookups(){
+        var cache = new MessageScalarCache(MessageScalarCache.DEFAULT_MAX_ENTRIES, 16);
+        var lookups = 8 * 1000;
+        IntStream.range(0, lookups).parallel().forEach(i -> {
+            var value = "value " + (i % 100);
+            var scalar = cache.computeIfAbsent(api_id, message(value), message -> scalar(value.hashCode() & 0xffff));
+            assertTrue(scalar.equals(scalar(value.hashCode() & 0xffff)));
+        });
+        assertEquals(100, cache.getCachedScalars());
+        assertEquals(lookups, cache.getHits() + cache.getMisses());
+        // only digests are kept, not the messages
+        assertEquals(100L * (MessageScalarCache.DIGEST_LENGTH + MessageScalarCache.ENTRY_OVERHEAD), cache.getMemoryUsage());
+        cache.setMaxEntries(10);
+        assertTrue(cache.getCachedScalars() <= 10);
+        assertEquals(10, cache.getMaxEntries());
+    }
+
+    private static ByteBuffer message(String value){
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Scalar scalar(int value){
+        return Scalar.of(BigInteger.valueOf(value));
+    }
+}
@@ -0,0 +1,67 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.openchvote.util.sequence.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static ch.bfh.p2bbs.utils.Definitions.CIPHERSUITE_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagesToScalarsTest {
+
+    private static final OctetString API_ID = CIPHERSUITE_ID.concat("H2G_HM2S_", StandardCharsets.US_ASCII);
+
+    @Test
+    public void parallelHashingPreservesOrder(){
+        var random = new Random(5);
+        var messages = new Vector.Builder<OctetString>(40);
+        for (int i = 0; i < 40; i++) {
+            // a few large messages between many small ones
+            var message = new byte[i % 10 == 0 ? 20000 : random.nextInt(100)];
+            random.nextBytes(message);
+            messages.addValue(new OctetString(message));
+        }
+        var M = messages.build();
+        var sequential = MessagesToScalars.messagesToScalars(M, API_ID, null);
+        var pool = new ForkJoinPool(4);
+        var previous = MessagesToScalars.getParallelCountThreshold();
+        try {
+            MessagesToScalars.setParallelCountThreshold(2);
+            var parallel = MessagesToScalars.messagesToScalars(M, API_ID, pool);
+            assertEquals(sequential.getLength(), parallel.getLength());
+            for (int i = 1; i <= M.getLength(); i++) {
+                assertTrue(sequential.getValue(i).equals(parallel.getValue(i)));
+                assertTrue(helper.hash_to_scalar(M.getValue(i), API_ID.concat("MAP_MSG_TO_SCALAR_AS_HASH_", StandardCharsets.US_ASCII)).equals(parallel.getValue(i)));
+            }
+        } finally {
+            MessagesToScalars.setParallelCountThreshold(previous);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void hashesByteBuffersInPlace(){
+        var messages = new Vector.Builder<OctetString>(3);
+        var buffers = new ArrayList<ByteBuffer>();
+        for (var text: new String[]{"first", "", "third message"}) {
+            var bytes = text.getBytes(StandardCharsets.UTF_8);
+            messages.addValue(new OctetString(bytes));
+            // a direct buffer with the message between other bytes
+            var buffer = ByteBuffer.allocateDirect(bytes.length + 4);
+            buffer.put((byte) 1).put((byte) 2).put(bytes).put((byte) 3).put((byte) 4);
+            buffers.add(buffer.position(2).limit(2 + bytes.length));
+        }
+        var expected = helper.messages_to_scalars(messages.build(), API_ID);
+        var scalars = helper.messages_to_scalars(buffers, API_ID);
+        for (int i = 1; i <= scalars.getLength(); i++) {
+            assertTrue(expected.getValue(i).equals(scalars.getValue(i)));
+            assertEquals(2, buffers.get(i-1).position());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.G2Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.PreparedG2Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static ch.bfh.p2bbs.utils.Definitions.BLS12381;
+import static ch.bfh.p2bbs.utils.Definitions.GT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiPairingBLS12Test {
+
+    @Test
+    public void productMatchesSinglePairings(){
+        var P1 = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(3)));
+        var P2 = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(11)));
+        var Q1 = G2Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(5)));
+        var Q2 = G2Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(7)));
+        var expected = GT.multiply(BLS12381.pair(P1.getPoint(), Q1.getPoint()), BLS12381.pair(P2.getPoint(), Q2.getPoint()));
+        var product = BLS12381.pairingProduct(new ch.bfh.evg.element.G1Point[]{P1.getPoint(), P2.getPoint()}, new ch.bfh.evg.element.G2Point[]{Q1.getPoint(), Q2.getPoint()});
+        assertEquals(expected, product);
+    }
+
+    @Test
+    public void pairingProductIsOne(){
+        var a = Scalar.of(BigInteger.valueOf(123456789));
+        var P = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(17)));
+        assertTrue(G1Point.pairingProductIsOne(new G1Point[]{P.times(a), P}, new G2Point[]{G2Point.GENERATOR, G2Point.GENERATOR.times(a).negate()}));
+        assertFalse(G1Point.pairingProductIsOne(new G1Point[]{P.times(a), P}, new G2Point[]{G2Point.GENERATOR, G2Point.GENERATOR.times(a)}));
+        assertTrue(G1Point.pairingProductIsOne(new G1Point[]{G1Point.ZERO}, new G2Point[]{G2Point.GENERATOR}));
+    }
+
+    @Test
+    public void preparedPointsMatchUnprepared(){
+        var a = Scalar.of(BigInteger.valueOf(987654321));
+        var P = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(29)));
+        var W = new PreparedG2Point(G2Point.GENERATOR.times(a));
+        var expected = BLS12381.pair(P.getPoint(), W.getPoint().getPoint());
+        assertEquals(expected, BLS12381.pairingProduct(new ch.bfh.evg.element.G1Point[]{P.getPoint()}, new MultiPairingBLS12.PreparedLines[]{W.getLines()}));
+        assertTrue(G1Point.pairingProductIsOne(new G1Point[]{P, P.times(a)}, new PreparedG2Point[]{W, PreparedG2Point.negatedGenerator()}));
+        assertFalse(G1Point.pairingProductIsOne(new G1Point[]{P, P}, new PreparedG2Point[]{W, PreparedG2Point.negatedGenerator()}));
+    }
+
+    @Test
+    public void publicKeyCacheIsBounded(){
+        var max = PreparedG2Point.getMaxPublicKeys();
+        try {
+            PreparedG2Point.setMaxPublicKeys(2);
+            var keys = new OctetString[3];
+            for (int i = 0; i < 3; i++) {
+                keys[i] = new OctetString(G2Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(41 + i))).serialize());
+            }
+            var first = PreparedG2Point.ofPublicKey(keys[0]);
+            // an equal key in another array is served from the cache
+            assertSame(first, PreparedG2Point.ofPublicKey(new OctetString(keys[0].toBytes().clone())));
+            PreparedG2Point.ofPublicKey(keys[1]);
+            PreparedG2Point.ofPublicKey(keys[2]);
+            assertTrue(PreparedG2Point.getCachedPublicKeys() <= 2);
+            assertNotSame(first, PreparedG2Point.ofPublicKey(keys[0]));
+            assertTrue(PreparedG2Point.ofPublicKey(OctetString.INVALID).isInvalid());
+            assertThrows(IllegalArgumentException.class, () -> PreparedG2Point.setMaxPublicKeys(-1));
+        } finally {
+            PreparedG2Point.setMaxPublicKeys(max);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.openchvote.util.sequence.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiScalarMultiplicationTest {
+
+    private static final Random random = new Random(42);
+
+    @Test
+    public void matchesNaiveLoop(){
+        for (int n : new int[]{0, 1, 2, 5, 17, 64}) {
+            var points = randomPoints(n);
+            var scalars = randomScalars(n);
+            var expected = MultiScalarMultiplication.naive(points, scalars);
+            var result = G1Point.sumOfScalarMultiply(points, scalars);
+            assertArrayEquals(expected.serialize(), result.serialize());
+        }
+    }
+
+    @Test
+    public void handlesRepeatedPointsAndSpecialScalars(){
+        var P = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(7)));
+        var points = new Vector.Builder<G1Point>(6).addValue(P).addValue(P).addValue(P).addValue(G1Point.ZERO).addValue(P).addValue(P).build();
+        var scalars = new Vector.Builder<Scalar>(6)
+                .addValue(Scalar.of(BigInteger.valueOf(3)))
+                .addValue(Scalar.of(BigInteger.valueOf(3)))
+                .addValue(Scalar.of(BigInteger.ZERO))
+                .addValue(Scalar.of(BigInteger.valueOf(5)))
+                .addValue(Scalar.of(BigInteger.valueOf(6)).negate())
+                .addValue(Scalar.of(r.subtract(BigInteger.ONE)))
+                .build();
+        var expected = MultiScalarMultiplication.naive(points, scalars);
+        assertArrayEquals(expected.serialize(), G1Point.sumOfScalarMultiply(points, scalars).serialize());
+        assertTrue(G1Point.sumOfScalarMultiply(points, scalars).add(P).isZero());
+    }
+
+    @Test
+    public void parallelChunksMatchSingleThreaded(){
+        var points = randomPoints(100);
+        var scalars = randomScalars(100);
+        var expected = G1Point.sumOfScalarMultiply(points, scalars, null);
+        // without an executor of its own, the computation stays on the calling thread
+        assertNull(MultiScalarMultiplication.getExecutor());
+        assertArrayEquals(expected.serialize(), G1Point.sumOfScalarMultiply(points, scalars).serialize());
+        var pool = Executors.newFixedThreadPool(3);
+        var threshold = MultiScalarMultiplication.getParallelThreshold();
+        try {
+            MultiScalarMultiplication.setParallelThreshold(64);
+            assertArrayEquals(expected.serialize(), G1Point.sumOfScalarMultiply(points, scalars, pool).serialize());
+        } finally {
+            MultiScalarMultiplication.setParallelThreshold(threshold);
+            pool.shutdown();
+        }
+    }
+
+    private static Vector<G1Point> randomPoints(int n){
+        var builder = new Vector.Builder<G1Point>(n);
+        for (int i = 0; i < n; i++) {
+            builder.addValue(G1Point.GENERATOR.times(Scalar.of(new BigInteger(64, random))));
+        }
+        return builder.build();
+    }
+
+    private static Vector<Scalar> randomScalars(int n){
+        var builder = new Vector.Builder<Scalar>(n);
+        for (int i = 0; i < n; i++) {
+            builder.addValue(Scalar.of(new BigInteger(255, random).mod(r)));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,73 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.Scalar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.r;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalarFieldTest {
+
+    @Test
+    public void matchesBigIntegerArithmetic(){
+        var random = new Random(7);
+        var values = new BigInteger[]{BigInteger.ZERO, BigInteger.ONE, BigInteger.TWO, r.subtract(BigInteger.ONE), r.subtract(BigInteger.TWO), BigInteger.ONE.shiftLeft(254)};
+        for (int round = 0; round < 200; round++) {
+            var a = round < values.length ? values[round] : new BigInteger(255, random).mod(r);
+            var b = round < values.length ? values[values.length - 1 - round] : new BigInteger(255, random).mod(r);
+            var sa = Scalar.of(a);
+            var sb = Scalar.of(b);
+            assertEquals(a, sa.toBigInteger());
+            assertEquals(a.add(b).mod(r), sa.add(sb).toBigInteger());
+            assertEquals(a.subtract(b).mod(r), sa.substract(sb).toBigInteger());
+            assertEquals(a.multiply(b).mod(r), sa.multiply(sb).toBigInteger());
+            assertEquals(a.negate().mod(r), sa.negate().toBigInteger());
+            assertEquals(a.pow(3).mod(r), sa.power(3).toBigInteger());
+            if(a.signum() != 0) assertEquals(a.modInverse(r), sa.modInverse(r).toBigInteger());
+        }
+    }
+
+    @Test
+    public void convertsBytes(){
+        var random = new Random(11);
+        for (var length: new int[]{0, 1, 8, 31, 32, 33, 48, 64}) {
+            var bytes = new byte[length];
+            random.nextBytes(bytes);
+            var expected = new BigInteger(1, bytes).mod(r);
+            var scalar = Scalar.fromBytes(bytes);
+            assertEquals(expected, scalar.toBigInteger());
+            var encoded = scalar.toBytes();
+            assertEquals(ScalarField.BYTES, encoded.length);
+            assertEquals(expected, new BigInteger(1, encoded));
+        }
+        var max = new byte[64];
+        Arrays.fill(max, (byte) 0xff);
+        assertEquals(BigInteger.ONE.shiftLeft(512).subtract(BigInteger.ONE).mod(r), Scalar.fromBytes(max).toBigInteger());
+        assertEquals(r.subtract(BigInteger.ONE), Scalar.of(r.subtract(BigInteger.ONE)).toBigInteger());
+        // values outside of [0, r) and other moduli are rejected instead of reduced
+        assertThrows(IllegalArgumentException.class, () -> Scalar.of(r));
+        assertThrows(IllegalArgumentException.class, () -> Scalar.of(BigInteger.ONE.negate()));
+        assertThrows(IllegalArgumentException.class, () -> Scalar.of(BigInteger.TEN).mod(BigInteger.valueOf(7)));
+        assertThrows(IllegalArgumentException.class, () -> Scalar.of(BigInteger.TEN).modInverse(BigInteger.valueOf(7)));
+        assertEquals(BigInteger.TEN, Scalar.of(BigInteger.TEN).mod(r).toBigInteger());
+    }
+
+    @Test
+    public void batchInverse(){
+        var random = new Random(13);
+        var scalars = new Scalar[17];
+        for (int i = 0; i < scalars.length; i++) {
+            scalars[i] = Scalar.of(new BigInteger(255, random).mod(r).add(BigInteger.ONE));
+        }
+        var inverses = Scalar.batchInverse(scalars);
+        for (int i = 0; i < scalars.length; i++) {
+            assertEquals(scalars[i].toBigInteger().modInverse(r), inverses[i].toBigInteger());
+        }
+        assertEquals(0, Scalar.batchInverse(new Scalar[0]).length);
+        assertThrows(ArithmeticException.class, () -> Scalar.batchInverse(new Scalar[]{Scalar.of(BigInteger.ONE), Scalar.of(BigInteger.ZERO)}));
+    }
+}
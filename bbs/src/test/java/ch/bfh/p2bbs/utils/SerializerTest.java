@@ -0,0 +1,37 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.G2Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import ch.bfh.p2bbs.excptions.Abort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static ch.bfh.p2bbs.utils.helper.i2osp;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializerTest {
+
+    @Test
+    public void matchesConcatenation(){
+        var P = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(3)));
+        var Q = G2Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(5)));
+        var s = Scalar.of(BigInteger.valueOf(7)).negate();
+        var tail = OctetString.valueOf("tail", StandardCharsets.US_ASCII);
+        var expected = new OctetString(P.serialize()).concat(new OctetString(Q.serialize())).concat(i2osp(s, 32))
+                .concat(i2osp(Scalar.of(BigInteger.valueOf(300)), 8)).concat(tail);
+        // the capacity of one point only, the serializer grows
+        var serialized = new Serializer(Serializer.POINT_G1_LENGTH).add(P).add(Q).add(s).add(300).add(tail).toOctetString();
+        assertTrue(expected.equals(serialized));
+        assertEquals(Serializer.size(1, 1, 1, 1), serialized.length - tail.length);
+
+        var dst = OctetString.valueOf("SERIALIZER_TEST_DST", StandardCharsets.US_ASCII);
+        var stream = new ExpandMessageXmd(dst.toBytes(), 48).start();
+        new Serializer(stream).add(P).add(Q).add(s).add(300).add(tail);
+        assertArrayEquals(new ExpandMessageXmd(dst.toBytes(), 48).expand(expected.toBytes()), stream.finish());
+        assertThrows(Abort.class, () -> new Serializer(8).add(-1));
+    }
+}
@@ -0,0 +1,95 @@
+package ch.bfh.p2bbs.utils;
+
+import ch.bfh.evg.element.Fp2Element;
+import ch.bfh.evg.field.Fp;
+import ch.bfh.evg.field.Fp2;
+import ch.bfh.p2bbs.Types.G1Point;
+import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Scalar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static ch.bfh.p2bbs.utils.Definitions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubgroupCheckTest {
+
+    @Test
+    public void acceptsExactlyTheSubgroupOfG1(){
+        var random = new Random(8);
+        for (int i = 0; i < 10; i++) {
+            var P = G1.times(G1.getGenerator(), new BigInteger(255, random));
+            assertTrue(SubgroupCheck.isInG1(P));
+            var Q = randomG1CurvePoint(random);
+            assertFalse(SubgroupCheck.isInG1(Q));
+            // the textbook check
+            assertFalse(G1.isZero(G1.times(Q, r)));
+        }
+        assertTrue(SubgroupCheck.isInG1(G1.getZero()));
+    }
+
+    @Test
+    public void acceptsExactlyTheSubgroupOfG2(){
+        var random = new Random(9);
+        for (int i = 0; i < 5; i++) {
+            var P = G2.times(G2.getGenerator(), new BigInteger(255, random));
+            assertTrue(SubgroupCheck.isInG2(P));
+            // psi acts as multiplication by z on G2
+            assertEquals(G2.times(P, new BigInteger("d201000000010000", 16)).toString(), G2.negate(SubgroupCheck.psi(P)).toString());
+            var Q = randomG2CurvePoint();
+            assertFalse(SubgroupCheck.isInG2(Q));
+            assertFalse(G2.isZero(G2.times(Q, r)));
+        }
+    }
+
+    @Test
+    public void decodingRejectsPointsOutsideOfTheSubgroups(){
+        var random = new Random(10);
+        var A = new OctetString(G1.serialize(randomG1CurvePoint(random)));
+        var e = helper.i2osp(Scalar.of(BigInteger.valueOf(5)), 32);
+        // the decoding of G1 points itself rejects points outside of G1, GlvMultiplication relies on it
+        assertTrue(G1Point.deserialize(A).isInvalid());
+        assertThrows(IllegalArgumentException.class, () -> G1Point.deserialize(A.toBytes()));
+        assertTrue(helper.octets_to_signature(A.concat(e)).isInvalid());
+        var member = new OctetString(G1Point.GENERATOR.times(Scalar.of(BigInteger.TEN)).serialize());
+        assertFalse(helper.octets_to_signature(member.concat(e)).isInvalid());
+        var W = new OctetString(G2.serialize(randomG2CurvePoint()));
+        assertTrue(helper.octets_to_pubkey(W).isInvalid());
+        assertTrue(helper.octets_to_pubkey(new OctetString(G2.serialize(G2.getZero()))).isInvalid());
+        assertFalse(helper.octets_to_pubkey(new OctetString(G2.serialize(G2.getGenerator()))).isInvalid());
+    }
+
+    @Test
+    public void octetsToPubkeyRejectsOtherLengths(){
+        var W = new OctetString(G2.serialize(G2.getGenerator()));
+        assertEquals(96, W.length);
+        assertTrue(helper.octets_to_pubkey(OctetString.valueOfHexString("")).isInvalid());
+        assertTrue(helper.octets_to_pubkey(W.slice(0, 95)).isInvalid());
+        assertTrue(helper.octets_to_pubkey(W.concat(new OctetString(new byte[1]))).isInvalid());
+    }
+
+    // a point on E, which is not in G1 with overwhelming probability as the cofactor is not cleared
+    private static ch.bfh.evg.element.G1Point randomG1CurvePoint(Random random){
+        var field = (Fp) G1.getField();
+        var p = field.getCharacteristic();
+        while (true) {
+            var x = new BigInteger(381, random).mod(p);
+            var y2 = x.pow(3).add(BigInteger.valueOf(4)).mod(p);
+            var y = y2.modPow(p.add(BigInteger.ONE).shiftRight(2), p);
+            if(y.multiply(y).mod(p).equals(y2)) return G1.getPoint(field.getElement(x), field.getElement(y));
+        }
+    }
+
+    // a point on the twist E', which is not in G2 with overwhelming probability
+    private static ch.bfh.evg.element.G2Point randomG2CurvePoint(){
+        var field = (Fp2) G2.getField();
+        var b = field.getElement(BigInteger.valueOf(4), BigInteger.valueOf(4));
+        while (true) {
+            Fp2Element x = field.getRandom();
+            var y = field.squareRoot(field.add(field.multiply(field.square(x), x), b));
+            if(y.isPresent()) return G2.getPoint(x, y.get());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package ch.bfh.p2bbs.utils;
 
+import ch.bfh.p2bbs.Ciphersuite;
 import ch.bfh.p2bbs.Types.G1Point;
 import ch.bfh.p2bbs.Types.OctetString;
+import ch.bfh.p2bbs.Types.Proof;
 import ch.bfh.p2bbs.Types.Scalar;
 import ch.openchvote.util.sequence.Vector;
 import org.json.simple.JSONArray;
@@ -14,7 +16,9 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static ch.bfh.p2bbs.utils.helper.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class helperTest {
 
     private static final String fixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-sha-256/";
+    private static final String shakeFixturePath = "./src/test/java/ch/bfh/p2bbs/fixture_data/bls12-381-shake-256/";
 
     @Test
     public void hastToScalarTest(){
@@ -41,6 +46,28 @@ class helperTest {
         }
     }
 
+    @Test
+    public void hashToScalarShakeTest(){
+        hashToScalar(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void hashToScalar(String fixturePath, Ciphersuite ciphersuite){
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath + "h2s.json")){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            System.out.println(fixturePath + ": " + obj.get("caseName"));
+            var message = OctetString.valueOfHexString((String) obj.get("message"));
+            var dst = OctetString.valueOfHexString((String) obj.get("dst"));
+            var scalar = new Scalar(new BigInteger((String) obj.get("scalar"), 16));
+            var hashedMsg = hash_to_scalar(message, dst, ciphersuite);
+            assertTrue(hashedMsg.equals(scalar));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Test
     public void checkGenerators(){
         var api_id = OctetString.valueOf("BBS_BLS12381G1_XMD:SHA-256_SSWU_RO_H2G_HM2S_", StandardCharsets.US_ASCII);
@@ -65,6 +92,36 @@ class helperTest {
         }
     }
 
+    @Test
+    public void checkGeneratorsShake(){
+        checkGenerators(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void checkGenerators(String fixturePath, Ciphersuite ciphersuite){
+        var api_id = ciphersuite.getApiId();
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath + "generators.json")){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            System.out.println(fixturePath + ": " + obj.get("caseName"));
+            var MsgGenerators = (JSONArray) obj.get("MsgGenerators");
+            var Q1 = (G1Point) G1Point.deserialize(OctetString.valueOfHexString((String) obj.get("Q1")).toBytes());
+            var builder = new Vector.Builder<G1Point>();
+            builder.addValue(Q1);
+            for (var generators: MsgGenerators){
+                builder.addValue(G1Point.deserialize(OctetString.valueOfHexString((String) generators).toBytes()));
+            }
+            var allGenerators = builder.build();
+            var generators = create_generators(allGenerators.getLength(), api_id, ciphersuite);
+            assertTrue(generators.equals(allGenerators));
+            var P1 = G1Point.deserialize(OctetString.valueOfHexString((String) obj.get("P1")).toBytes());
+            assertTrue(ciphersuite.getP1().equals(P1));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Test
     public void messageToScalarAsHashTest(){
         JSONParser jsonParser = new JSONParser();
@@ -88,6 +145,91 @@ class helperTest {
         }
     }
 
+    @Test
+    public void messageToScalarAsHashShakeTest(){
+        messageToScalarAsHash(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void messageToScalarAsHash(String fixturePath, Ciphersuite ciphersuite){
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath + "MapMessageToScalarAsHash.json")){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            System.out.println(fixturePath + ": " + obj.get("caseName"));
+            var dst = OctetString.valueOfHexString((String) obj.get("dst"));
+            var cases = (JSONArray) obj.get("cases");
+
+            for (Object aCase : cases) {
+                var msgCase = (JSONObject) aCase;
+                var message = OctetString.valueOfHexString((String) msgCase.get("message"));
+                var scalar = new Scalar(new BigInteger((String) msgCase.get("scalar"), 16));
+                var hashedMsg = hash_to_scalar(message, dst, ciphersuite);
+                assertTrue(hashedMsg.equals(scalar));
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void octetsToSignatureRejectsNonCanonicalScalar(){
+        var A = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(7)));
+        var signature = new OctetString(A.serialize()).concat(i2osp(Scalar.of(BigInteger.valueOf(5)), 32));
+        var view = octets_to_signature(signature);
+        assertFalse(view.isInvalid());
+        assertSame(view.getPoint(), view.getPoint());
+        assertEquals(octets_to_signature(signature), view);
+        assertEquals(octets_to_signature(signature).hashCode(), view.hashCode());
+        // e + r encodes the same scalar, but is not the canonical encoding
+        var e_plus_r = new OctetString(A.serialize()).concat(new OctetString(Definitions.r.add(BigInteger.valueOf(5)).toByteArray()));
+        assertEquals(80, e_plus_r.length);
+        assertTrue(octets_to_signature(e_plus_r).isInvalid());
+        var bytes = signature.toBytes().clone();
+        bytes[0] &= 0x7f;
+        assertTrue(octets_to_signature(new OctetString(bytes)).isInvalid());
+    }
+
+    @Test
+    public void octetsToProofDecodesLazily(){
+        var points = new G1Point[3];
+        for (int i = 0; i < 3; i++) {
+            points[i] = G1Point.GENERATOR.times(Scalar.of(BigInteger.valueOf(11 + i)));
+        }
+        var commitments = new Vector.Builder<Scalar>(2).addValue(Scalar.of(BigInteger.valueOf(4))).addValue(Scalar.of(BigInteger.valueOf(5))).build();
+        var proof = new Proof(points[0], points[1], points[2], Scalar.of(BigInteger.ONE), Scalar.of(BigInteger.TWO), Scalar.of(BigInteger.valueOf(3)), commitments, Scalar.of(BigInteger.valueOf(6)));
+        var octets = proofToOctets(proof);
+        var buffer = ByteBuffer.allocateDirect(octets.length).put(octets.toBytes()).flip();
+        var view = octets_to_proof(OctetString.wrap(buffer));
+        assertFalse(view.isInvalid());
+        assertEquals(2, view.getMsgCommitmentsLength());
+        assertTrue(octets.equals(proofToOctets(view)));
+        assertEquals(BigInteger.valueOf(6), view.getChallenge().toBigInteger());
+        assertEquals(BigInteger.valueOf(5), view.getMsgCommitment(2).toBigInteger());
+        assertSame(view.getAbar(), view.getAbar());
+        assertSame(view.getMsgCommitment(1), view.getMsgCommitment(1));
+        // a length that is not 3 points and 4 + U scalars is rejected without decoding
+        assertTrue(octets_to_proof(octets.slice(0, octets.length - 1)).isInvalid());
+        assertTrue(octets_to_proof(octets.slice(0, 3 * 48 + 3 * 32)).isInvalid());
+        // a commitment of 0 only invalidates the element and the proof
+        var bytes = octets.toBytes().clone();
+        Arrays.fill(bytes, 3 * 48 + 4 * 32, 3 * 48 + 5 * 32, (byte) 0);
+        var corrupted = octets_to_proof(new OctetString(bytes));
+        assertTrue(corrupted.getMsgCommitment(2).isInvalid());
+        assertFalse(corrupted.getMsgCommitment(1).isInvalid());
+        assertTrue(corrupted.isInvalid());
+    }
+
+    private static OctetString proofToOctets(Proof proof){
+        var U = proof.getMsgCommitmentsLength();
+        var serializer = new Serializer(Serializer.size(3, 0, 4 + U, 0)).add(proof.getAbar()).add(proof.getBbar()).add(proof.getD())
+                .add(proof.getECalc()).add(proof.getR1Calc()).add(proof.getR3Calc());
+        for (int j = 1; j <= U; j++) {
+            serializer.add(proof.getMsgCommitment(j));
+        }
+        return serializer.add(proof.getChallenge()).toOctetString();
+    }
+
     @Test
     public void mockedRngTest(){
         JSONParser jsonParser = new JSONParser();
@@ -113,4 +255,34 @@ class helperTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void mockedRngShakeTest(){
+        mockedRng(shakeFixturePath, Ciphersuite.BLS12_381_SHAKE_256);
+    }
+
+    private static void mockedRng(String fixturePath, Ciphersuite ciphersuite){
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(fixturePath + "mockedRng.json")){
+            var obj = (JSONObject) jsonParser.parse(reader);
+            System.out.println(fixturePath + ": " + obj.get("caseName"));
+            var seed = OctetString.valueOfHexString((String) obj.get("seed"));
+            var dst = OctetString.valueOfHexString((String) obj.get("dst"));
+            var count = Math.toIntExact((Long) obj.get("count"));
+            var mockedScalars = (JSONArray) obj.get("mockedScalars");
+            var builder = new Vector.Builder<Scalar>();
+            for (var generators: mockedScalars){
+                builder.addValue(new Scalar(new BigInteger((String) generators, 16)));
+            }
+            var allScalars = builder.build();
+            var result = mockedRandomScalars(seed, dst, count, ciphersuite);
+            for (int i = 1; i <= result.getLength(); i++) {
+                assertTrue(result.getValue(i).equals(allScalars.getValue(i)));
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
\ No newline at end of file